@@ -0,0 +1,265 @@
+// What-if analysis over one project list
+// ======================================
+// Analysts ask the same project list many (k, initialCapital) questions. Calling
+// StartupCapitalOptimizer.maximizeCapital for each one sorts and heaps every project again.
+// The engine sorts the projects once into an immutable index and answers whole batches:
+//   - The greedy never looks at k, so the run for k rounds is a prefix of the run for any
+//     larger k. Queries with the same initial capital share one run: they are sorted by k and
+//     each one takes the capital as the run passes its round, so no curve is stored.
+//   - Runs for different initial capitals are independent and are spread over a ForkJoinPool.
+// An index is safe to share between threads; all per-run state lives in the tasks.
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public final class CapitalScenarioEngine {
+
+    // Distinct initial capitals handled by one leaf task (each one is a full greedy run)
+    static final int GROUPS_PER_TASK = 4;
+
+    final int[] sortedInvestments; // projects in increasing order of investment
+    final long[] sortedProjects;   // packed (revenue, original index), see StartupCapitalOptimizer.project
+
+    /**
+     * Builds the index for one project list. The arrays are copied, so later changes by the
+     * caller do not affect the engine.
+     *
+     * @param revenues Array of revenue values for projects
+     * @param investments Array of required investments for projects
+     */
+    public CapitalScenarioEngine(int[] revenues, int[] investments) {
+        if (revenues == null || investments == null || revenues.length != investments.length) {
+            throw new IllegalArgumentException("Invalid input arrays");
+        }
+        int n = revenues.length;
+        this.sortedInvestments = new int[n];
+        this.sortedProjects = new long[n];
+        StartupCapitalOptimizer.sortByInvestment(revenues, investments, sortedInvestments, sortedProjects);
+    }
+
+    /**
+     * Number of projects in the index.
+     */
+    public int projects() {
+        return sortedInvestments.length;
+    }
+
+    /**
+     * Answers a single scenario; same result as StartupCapitalOptimizer.maximizeCapitalLong.
+     */
+    public long maximizeCapital(int k, long initialCapital) {
+        long[] result = new long[1];
+        long[] marks = {mark(k, 0)};
+        run(initialCapital, marks, 0, 1, result, new StartupCapitalOptimizer.LongMaxHeap(projects()));
+        return result[0];
+    }
+
+    /**
+     * Capital after each round of one scenario: curve[0] is initialCapital and curve[r] the
+     * capital after r projects. The curve ends early when no affordable project is left.
+     */
+    public long[] capitalCurve(int k, long initialCapital) {
+        int rounds = clampRounds(k);
+        long[] marks = new long[rounds + 1];
+        for (int r = 0; r <= rounds; r++) {
+            marks[r] = mark(r, r);
+        }
+        long[] curve = new long[rounds + 1];
+        int completed = run(initialCapital, marks, 0, marks.length, curve,
+                new StartupCapitalOptimizer.LongMaxHeap(projects()));
+        return completed == rounds ? curve : Arrays.copyOf(curve, completed + 1);
+    }
+
+    /**
+     * Answers a batch of scenarios on the common pool.
+     *
+     * @param ks Round limit of each scenario
+     * @param initialCapitals Starting funds of each scenario
+     * @return maximum capital of each scenario, in query order
+     */
+    public long[] maximizeCapital(int[] ks, long[] initialCapitals) {
+        return maximizeCapital(ks, initialCapitals, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #maximizeCapital(int[], long[])} on the given pool.
+     */
+    long[] maximizeCapital(int[] ks, long[] initialCapitals, ForkJoinPool pool) {
+        if (ks == null || initialCapitals == null || ks.length != initialCapitals.length) {
+            throw new IllegalArgumentException("Invalid query arrays");
+        }
+        int queries = ks.length;
+
+        // Distinct initial capitals
+        long[] starts = Arrays.copyOf(initialCapitals, queries);
+        Arrays.sort(starts);
+        int groups = 0;
+        for (int i = 0; i < queries; i++) {
+            if (groups == 0 || starts[groups - 1] != starts[i]) {
+                starts[groups++] = starts[i];
+            }
+        }
+        starts = Arrays.copyOf(starts, groups);
+
+        // Queries bucketed by start: group g owns marks[groupStart[g] .. groupStart[g + 1])
+        int[] group = new int[queries];
+        int[] groupStart = new int[groups + 1];
+        for (int q = 0; q < queries; q++) {
+            group[q] = Arrays.binarySearch(starts, initialCapitals[q]);
+            groupStart[group[q] + 1]++;
+        }
+        for (int g = 0; g < groups; g++) {
+            groupStart[g + 1] += groupStart[g];
+        }
+        long[] marks = new long[queries];
+        int[] filled = Arrays.copyOf(groupStart, groups);
+        for (int q = 0; q < queries; q++) {
+            marks[filled[group[q]]++] = mark(ks[q], q);
+        }
+
+        // One greedy run per distinct start, writing each query's result as it passes its round
+        long[] results = new long[queries];
+        if (groups > 0) {
+            pool.invoke(new ScenarioTask(this, starts, groupStart, marks, results, 0, groups));
+        }
+        return results;
+    }
+
+    /**
+     * A query's round limit, clamped to [0, projects], in the high half and its result slot in
+     * the low half, so sorting marks orders them by round.
+     */
+    long mark(int k, int slot) {
+        return (long) clampRounds(k) << 32 | slot;
+    }
+
+    private int clampRounds(int k) {
+        return Math.min(Math.max(k, 0), projects());
+    }
+
+    /**
+     * Runs the greedy from initialCapital and, for each mark in marks[from .. to) (sorted, see
+     * mark), writes the capital after that many rounds into results at the mark's slot. Marks
+     * past the point where no affordable project is left get the final capital. The heap is
+     * cleared first, so callers can reuse one.
+     *
+     * @return number of rounds completed
+     */
+    int run(long initialCapital, long[] marks, int from, int to, long[] results,
+            StartupCapitalOptimizer.LongMaxHeap profitable) {
+        profitable.clear();
+        int n = sortedInvestments.length;
+        long currentFunds = initialCapital;
+        int next = 0; // first project not unlocked yet
+        int pending = from; // first mark not answered yet
+
+        int round = 0;
+        while (true) {
+            while (pending < to && (int) (marks[pending] >>> 32) == round) {
+                results[(int) marks[pending++]] = currentFunds;
+            }
+            if (pending == to) {
+                break;
+            }
+            // Unlock newly affordable projects
+            while (next < n && sortedInvestments[next] <= currentFunds) {
+                profitable.push(sortedProjects[next++]);
+            }
+            if (profitable.isEmpty()) {
+                break;
+            }
+            currentFunds += StartupCapitalOptimizer.revenueOf(profitable.pop());
+            round++;
+        }
+        // The greedy stopped early: the capital stays where it is
+        while (pending < to) {
+            results[(int) marks[pending++]] = currentFunds;
+        }
+        return round;
+    }
+
+    /**
+     * Answers the queries of a range of distinct starts, splitting until few enough are left.
+     */
+    static class ScenarioTask extends RecursiveAction {
+        private final CapitalScenarioEngine engine;
+        private final long[] starts;
+        private final int[] groupStart;
+        private final long[] marks;
+        private final long[] results;
+        private final int from;
+        private final int to;
+
+        ScenarioTask(CapitalScenarioEngine engine, long[] starts, int[] groupStart, long[] marks,
+                     long[] results, int from, int to) {
+            this.engine = engine;
+            this.starts = starts;
+            this.groupStart = groupStart;
+            this.marks = marks;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GROUPS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ScenarioTask(engine, starts, groupStart, marks, results, from, mid),
+                          new ScenarioTask(engine, starts, groupStart, marks, results, mid, to));
+                return;
+            }
+            // One heap for the whole leaf; each group's queries in order of rounds
+            StartupCapitalOptimizer.LongMaxHeap heap = new StartupCapitalOptimizer.LongMaxHeap(engine.projects());
+            for (int g = from; g < to; g++) {
+                Arrays.sort(marks, groupStart[g], groupStart[g + 1]);
+                engine.run(starts[g], marks, groupStart[g], groupStart[g + 1], results, heap);
+            }
+        }
+    }
+
+    // ============ TESTING ============
+    public static void main(String[] args) {
+        // Example 2 of the question for several round limits at once
+        CapitalScenarioEngine engine = new CapitalScenarioEngine(new int[]{3, 6, 10}, new int[]{1, 3, 5});
+        int[] ks = {0, 1, 2, 3, 5, 3};
+        long[] starts = {1, 1, 1, 1, 1, 0};
+        System.out.println("Results: " + Arrays.toString(engine.maximizeCapital(ks, starts)));
+        System.out.println("Curve from 1: " + Arrays.toString(engine.capitalCurve(5, 1)));
+
+        // Randomized batches against the one-shot optimizer
+        Random random = new Random(11);
+        boolean passed = true;
+        for (int t = 0; t < 300 && passed; t++) {
+            int n = random.nextInt(60);
+            int[] revenues = new int[n];
+            int[] investments = new int[n];
+            for (int i = 0; i < n; i++) {
+                revenues[i] = random.nextInt(100);
+                investments[i] = random.nextInt(300);
+            }
+            engine = new CapitalScenarioEngine(revenues, investments);
+
+            int queries = 1 + random.nextInt(50);
+            ks = new int[queries];
+            starts = new long[queries];
+            for (int q = 0; q < queries; q++) {
+                ks[q] = random.nextInt(n + 3) - 1;
+                starts[q] = random.nextInt(8) * 10; // few distinct starts so groups are shared
+            }
+            long[] results = engine.maximizeCapital(ks, starts);
+            for (int q = 0; q < queries; q++) {
+                long expected = StartupCapitalOptimizer.maximizeCapitalLong(ks[q], starts[q], revenues, investments);
+                long[] curve = engine.capitalCurve(ks[q], starts[q]);
+                if (results[q] != expected || engine.maximizeCapital(ks[q], starts[q]) != expected
+                        || curve[curve.length - 1] != expected) {
+                    System.out.println("Mismatch for k=" + ks[q] + ", c=" + starts[q]);
+                    passed = false;
+                }
+            }
+        }
+        System.out.println("Randomized batches: " + (passed ? "PASSED" : "FAILED"));
+    }
+}
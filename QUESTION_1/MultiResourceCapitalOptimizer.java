@@ -0,0 +1,157 @@
+// Multi-resource project selection
+// ================================
+// Real projects need more than capital: headcount, compute budget and so on. Here a project
+// unlocks only when every resource meets its threshold, and completing it adds a vector of gains.
+// The greedy is the same as StartupCapitalOptimizer's: each round it completes the unlocked
+// project with the largest capital gain (dimension 0). With one dimension the result is
+// identical to maximizeCapitalLong.
+//
+// Unlocking avoids rescanning the projects every round:
+//   - For each dimension, the projects are sorted by their threshold and a cursor marks how far
+//     the current amount of that resource reaches.
+//   - pending[i] counts the dimensions whose cursor has not passed project i yet. When it drops
+//     to zero the project enters the profitable heap.
+// Gains are non-negative, so resources never shrink and cursors only move forward. Over a whole
+// run this costs O(n * d log n) to sort, O(n * d) to advance the cursors and O(log n) per heap
+// operation.
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class MultiResourceCapitalOptimizer {
+
+    /**
+     * Runs up to k rounds of the greedy over d resources.
+     *
+     * @param k Maximum number of projects to complete
+     * @param initialResources Starting amount of each resource (length d, index 0 is capital)
+     * @param gains gains[r][i] is what project i adds to resource r on completion (non-negative)
+     * @param requirements requirements[r][i] is the amount of resource r project i needs to start
+     * @return Amount of each resource after the run
+     */
+    public static long[] maximizeResources(int k, long[] initialResources, int[][] gains, int[][] requirements) {
+        // Validate input parameters
+        if (initialResources == null || gains == null || requirements == null || initialResources.length == 0
+                || gains.length != initialResources.length || requirements.length != initialResources.length) {
+            throw new IllegalArgumentException("Invalid resource dimensions");
+        }
+        int d = initialResources.length;
+        int n = gains[0].length;
+        for (int r = 0; r < d; r++) {
+            if (gains[r].length != n || requirements[r].length != n) {
+                throw new IllegalArgumentException("Invalid input arrays for resource " + r);
+            }
+            for (int i = 0; i < n; i++) {
+                if (gains[r][i] < 0) {
+                    throw new IllegalArgumentException("Negative gain for project " + i + ", resource " + r);
+                }
+            }
+        }
+
+        // Per-dimension order of the projects by threshold, as packed (threshold, index)
+        long[][] byThreshold = new long[d][n];
+        for (int r = 0; r < d; r++) {
+            for (int i = 0; i < n; i++) {
+                byThreshold[r][i] = (long) requirements[r][i] << 32 | i;
+            }
+            Arrays.sort(byThreshold[r]);
+        }
+        int[] cursors = new int[d];
+        int[] pending = new int[n];
+        Arrays.fill(pending, d);
+
+        StartupCapitalOptimizer.LongMaxHeap profitable = new StartupCapitalOptimizer.LongMaxHeap(n);
+        long[] resources = initialResources.clone();
+
+        // Strategic investment rounds
+        for (int round = 0; round < k; round++) {
+            // Advance every cursor; a project unlocks when its last cursor passes it
+            for (int r = 0; r < d; r++) {
+                long[] order = byThreshold[r];
+                int c = cursors[r];
+                while (c < n && (int) (order[c] >> 32) <= resources[r]) {
+                    int index = (int) order[c++];
+                    if (--pending[index] == 0) {
+                        profitable.push(StartupCapitalOptimizer.project(gains[0][index], index));
+                    }
+                }
+                cursors[r] = c;
+            }
+
+            // Exit if no investments can be made
+            if (profitable.isEmpty()) {
+                break;
+            }
+
+            // Complete the project with the largest capital gain and collect its whole vector
+            int selected = StartupCapitalOptimizer.indexOf(profitable.pop());
+            for (int r = 0; r < d; r++) {
+                resources[r] += gains[r][selected];
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * Reference greedy that rescans every project each round. O(k * n * d).
+     */
+    static long[] maximizeResourcesByScan(int k, long[] initialResources, int[][] gains, int[][] requirements) {
+        int d = initialResources.length;
+        int n = gains[0].length;
+        long[] resources = initialResources.clone();
+        boolean[] done = new boolean[n];
+        for (int round = 0; round < k; round++) {
+            int best = -1;
+            for (int i = 0; i < n; i++) {
+                if (done[i]) continue;
+                boolean affordable = true;
+                for (int r = 0; r < d && affordable; r++) {
+                    affordable = requirements[r][i] <= resources[r];
+                }
+                // Same tie-break as the heap: larger gain, then larger index
+                if (affordable && (best < 0 || gains[0][i] >= gains[0][best])) {
+                    best = i;
+                }
+            }
+            if (best < 0) break;
+            done[best] = true;
+            for (int r = 0; r < d; r++) {
+                resources[r] += gains[r][best];
+            }
+        }
+        return resources;
+    }
+
+    // ============ TESTING ============
+    public static void main(String[] args) {
+        // Capital and headcount: project 2 pays most but needs 3 engineers, which project 1 brings
+        long[] result = maximizeResources(3, new long[]{5, 1},
+                new int[][]{{4, 2, 9}, {0, 2, 0}},
+                new int[][]{{0, 0, 0}, {1, 1, 3}});
+        System.out.println("Capital and headcount after 3 rounds: " + Arrays.toString(result));
+        System.out.println("Status: " + (Arrays.equals(result, new long[]{20, 3}) ? "PASSED" : "FAILED"));
+
+        // One dimension must agree with the single-resource optimizer, more with the rescanning greedy
+        Random random = new Random(3);
+        boolean passed = true;
+        for (int t = 0; t < 3000 && passed; t++) {
+            int d = 1 + random.nextInt(4);
+            int n = random.nextInt(30);
+            int[][] gains = new int[d][n];
+            int[][] requirements = new int[d][n];
+            long[] initial = new long[d];
+            for (int r = 0; r < d; r++) {
+                initial[r] = random.nextInt(20);
+                for (int i = 0; i < n; i++) {
+                    gains[r][i] = random.nextInt(15);
+                    requirements[r][i] = random.nextInt(60);
+                }
+            }
+            int k = random.nextInt(n + 2);
+            long[] fast = maximizeResources(k, initial, gains, requirements);
+            passed = Arrays.equals(fast, maximizeResourcesByScan(k, initial, gains, requirements))
+                    && (d > 1 || fast[0] == StartupCapitalOptimizer.maximizeCapitalLong(k, initial[0], gains[0], requirements[0]));
+        }
+        System.out.println("Randomized cross-check: " + (passed ? "PASSED" : "FAILED"));
+    }
+}
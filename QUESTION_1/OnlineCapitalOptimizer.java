@@ -0,0 +1,266 @@
+// Online project selection
+// ========================
+// StartupCapitalOptimizer needs every project up front. In production, projects keep arriving
+// while rounds are being decided. The online optimizer splits the work between two threads:
+//   - One producer thread publishes arrivals into a lock-free single-producer/single-consumer
+//     ring of packed longs (offer / put).
+//   - One consumer thread owns the heaps. Before each decision it moves pending arrivals into
+//     the affordable min-heap (keyed by investment), then unlocks into the profitable max-heap
+//     (keyed by revenue).
+// Each arrival and each decision costs O(log n). The only cross-thread state is the pair of ring
+// indices, published with release/acquire semantics.
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class OnlineCapitalOptimizer {
+
+    // Ring slots are packed as (investment << 32 | revenue)
+    private final long[] ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next slot the consumer reads
+    private final AtomicLong tail = new AtomicLong(); // next slot the producer writes
+
+    // Producer-side cache of head, to avoid reading the shared counter on every offer
+    private long cachedHead;
+
+    // Consumer-side state
+    private int[] revenues = new int[64];    // revenue by arrival index
+    private int arrived;                     // arrivals moved out of the ring
+    private final StartupCapitalOptimizer.LongMaxHeap affordable; // ~(investment << 32 | index), so the top is the cheapest
+    private final StartupCapitalOptimizer.LongMaxHeap profitable; // (revenue << 32 | index)
+    private long currentFunds;
+    private int roundsLeft;
+
+    /**
+     * @param initialCapital Starting funds
+     * @param k Maximum number of projects to complete
+     * @param ringCapacity Arrivals that can be pending before the producer has to wait
+     *                     (rounded up to a power of two)
+     */
+    public OnlineCapitalOptimizer(long initialCapital, int k, int ringCapacity) {
+        if (ringCapacity <= 0 || ringCapacity > 1 << 30) {
+            throw new IllegalArgumentException("Ring capacity must be in [1, 2^30]");
+        }
+        int capacity = 1;
+        while (capacity < ringCapacity) {
+            capacity <<= 1;
+        }
+        this.ring = new long[capacity];
+        this.mask = capacity - 1;
+        this.affordable = new StartupCapitalOptimizer.LongMaxHeap(64);
+        this.profitable = new StartupCapitalOptimizer.LongMaxHeap(64);
+        this.currentFunds = initialCapital;
+        this.roundsLeft = Math.max(k, 0);
+    }
+
+    // ---------------------------------------------------------------- producer side
+
+    /**
+     * Publishes a new project without blocking. Producer thread only.
+     *
+     * @return false if the ring is full
+     */
+    public boolean offer(int revenue, int investment) {
+        if (investment < 0) {
+            throw new IllegalArgumentException("Negative investment " + investment);
+        }
+        long t = tail.get(); // only this thread writes tail
+        if (t - cachedHead >= ring.length) {
+            cachedHead = head.get();
+            if (t - cachedHead >= ring.length) {
+                return false;
+            }
+        }
+        ring[(int) t & mask] = (long) investment << 32 | (revenue & 0xFFFFFFFFL);
+        tail.lazySet(t + 1); // release: the slot write happens-before the consumer sees t + 1
+        return true;
+    }
+
+    /**
+     * Publishes a new project, yielding while the ring is full. Producer thread only.
+     */
+    public void put(int revenue, int investment) {
+        while (!offer(revenue, investment)) {
+            Thread.yield();
+        }
+    }
+
+    // ---------------------------------------------------------------- consumer side
+
+    /**
+     * Moves every published arrival into the heaps. Consumer thread only.
+     *
+     * @return number of arrivals moved
+     */
+    public int drain() {
+        long h = head.get();
+        long t = tail.get(); // acquire: pairs with the producer's lazySet
+        if (h == t) {
+            return 0;
+        }
+        int moved = (int) (t - h);
+        if (arrived + moved < 0) {
+            throw new IllegalStateException("More than Integer.MAX_VALUE projects");
+        }
+        for (long i = h; i < t; i++) {
+            long slot = ring[(int) i & mask];
+            int index = arrived++;
+            if (index == revenues.length) {
+                revenues = Arrays.copyOf(revenues, index * 2);
+            }
+            revenues[index] = (int) slot;
+            affordable.push(~((slot & 0xFFFFFFFF00000000L) | index));
+        }
+        head.lazySet(t); // release the slots back to the producer
+        return moved;
+    }
+
+    /**
+     * Completes the most profitable affordable project among everything published so far.
+     * Consumer thread only.
+     *
+     * @return arrival index of the completed project, or -1 if none is affordable or no rounds are left
+     */
+    public int selectNext() {
+        if (roundsLeft == 0) {
+            return -1;
+        }
+        drain();
+        unlock();
+        if (profitable.isEmpty()) {
+            return -1;
+        }
+        long selected = profitable.pop();
+        currentFunds += StartupCapitalOptimizer.revenueOf(selected);
+        roundsLeft--;
+        return StartupCapitalOptimizer.indexOf(selected);
+    }
+
+    /**
+     * Arrival index of the project selectNext would complete now, or -1. Consumer thread only.
+     */
+    public int peekNext() {
+        if (roundsLeft == 0) {
+            return -1;
+        }
+        drain();
+        unlock();
+        return profitable.isEmpty() ? -1 : StartupCapitalOptimizer.indexOf(profitable.peek());
+    }
+
+    /**
+     * Current capital. Consumer thread only.
+     */
+    public long capital() {
+        return currentFunds;
+    }
+
+    /**
+     * Rounds that can still be played. Consumer thread only.
+     */
+    public int roundsLeft() {
+        return roundsLeft;
+    }
+
+    /**
+     * Projects received by the consumer so far. Consumer thread only.
+     */
+    public int arrived() {
+        return arrived;
+    }
+
+    private void unlock() {
+        while (!affordable.isEmpty() && (int) (~affordable.peek() >>> 32) <= currentFunds) {
+            int index = (int) ~affordable.pop();
+            profitable.push(StartupCapitalOptimizer.project(revenues[index], index));
+        }
+    }
+
+    // ============ TESTING ============
+    public static void main(String[] args) throws InterruptedException {
+        // Example 2 of the question, the last project arriving after the first round
+        OnlineCapitalOptimizer optimizer = new OnlineCapitalOptimizer(1, 3, 4);
+        optimizer.offer(3, 1);
+        optimizer.offer(6, 3);
+        System.out.print("Selected: " + optimizer.selectNext());
+        optimizer.offer(10, 5);
+        System.out.print(" " + optimizer.selectNext());
+        System.out.println(" " + optimizer.selectNext() + ", capital " + optimizer.capital());
+        System.out.println("Status: " + (optimizer.capital() == 20 ? "PASSED" : "FAILED"));
+
+        // Concurrent feed: a producer pushes every project through a small ring while the consumer
+        // keeps selecting. Each selection must match a reference run over exactly the arrivals
+        // published before it (arrived() right after the call)
+        Random random = new Random(5);
+        boolean passed = true;
+        long selectionsInFlight = 0; // selections made while the producer was still publishing
+        for (int t = 0; t < 50 && passed; t++) {
+            int n = 1 + random.nextInt(20_000);
+            int[] revenues = new int[n];
+            int[] investments = new int[n];
+            for (int i = 0; i < n; i++) {
+                revenues[i] = random.nextInt(1000);
+                investments[i] = random.nextInt(100_000);
+            }
+            int k = n / 2 + random.nextInt(n / 2 + 1);
+            OnlineCapitalOptimizer online = new OnlineCapitalOptimizer(random.nextInt(100), k, 256);
+            long initial = online.capital();
+
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < n; i++) {
+                    online.put(revenues[i], investments[i]);
+                }
+            });
+            producer.start();
+
+            // Reference: arrived but unaffordable by investment, affordable by (revenue, index)
+            PriorityQueue<Integer> waiting = new PriorityQueue<>(Comparator.comparingInt(i -> investments[i]));
+            PriorityQueue<Integer> ready = new PriorityQueue<>(
+                    Comparator.<Integer>comparingInt(i -> revenues[i]).thenComparingInt(i -> i).reversed());
+            long referenceFunds = initial;
+            int referenceArrived = 0;
+            while (passed && online.roundsLeft() > 0) {
+                boolean producing = online.arrived() < n;
+                int selected = online.selectNext();
+                while (referenceArrived < online.arrived()) {
+                    waiting.add(referenceArrived++);
+                }
+                while (!waiting.isEmpty() && investments[waiting.peek()] <= referenceFunds) {
+                    ready.add(waiting.poll());
+                }
+                int expected = ready.isEmpty() ? -1 : ready.poll();
+                if (expected >= 0) {
+                    referenceFunds += revenues[expected];
+                }
+                if (selected != expected || online.capital() != referenceFunds) {
+                    System.out.println("Mismatch for n=" + n + " after " + online.arrived() + " arrivals: selected "
+                            + selected + ", expected " + expected);
+                    passed = false;
+                }
+                if (selected >= 0 && producing) {
+                    selectionsInFlight++;
+                }
+                if (selected < 0) {
+                    if (online.arrived() == n) {
+                        break; // nothing affordable and nothing more to come
+                    }
+                    Thread.yield();
+                }
+            }
+            // Rounds may run out first: keep draining so the producer can finish
+            while (online.arrived() < n) {
+                if (online.drain() == 0) {
+                    Thread.yield();
+                }
+            }
+            producer.join();
+        }
+        System.out.println("Selections made while arrivals were in flight: " + selectionsInFlight);
+        passed &= selectionsInFlight > 0;
+        System.out.println("Concurrent feed: " + (passed ? "PASSED" : "FAILED"));
+    }
+}
@@ -0,0 +1,549 @@
+// Configurable PIN policy for SecureBankPIN
+// =========================================
+// The original policy (6-20 characters, a lowercase letter, an uppercase letter and a digit,
+// no three repeating characters) is just one instance of:
+//   - length between minLength and maxLength (inclusive)
+//   - at least one character of every required class (lowercase, uppercase, digit, symbol)
+//   - no run of more than maxRun identical consecutive characters
+//
+// A policy is compiled once into lookup tables (character classes, and the replacement count
+// and residue of every run length), and evaluate() scores a PIN in a single pass without
+// allocating. For a run limit r a run of length L needs L / (r + 1) replacements, and the
+// mod-3 deletion strategy of the original becomes a mod-(r + 1) strategy.
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+public final class PinPolicy {
+
+    // Character classes
+    static final int CLASS_LOWER = 1;
+    static final int CLASS_UPPER = 2;
+    static final int CLASS_DIGIT = 4;
+    static final int CLASS_SYMBOL = 8;
+    static final int ALL_CLASSES = CLASS_LOWER | CLASS_UPPER | CLASS_DIGIT | CLASS_SYMBOL;
+
+    // Rules a PIN can violate, reported as a bitmask in the high half of evaluate()'s result
+    static final int RULE_TOO_SHORT = 1;
+    static final int RULE_TOO_LONG = 2;
+    static final int RULE_MISSING_LOWER = 4;
+    static final int RULE_MISSING_UPPER = 8;
+    static final int RULE_MISSING_DIGIT = 16;
+    static final int RULE_REPEATS = 32;
+    static final int RULE_MISSING_SYMBOL = 64;
+
+    // The bank's original policy
+    public static final PinPolicy DEFAULT = new PinPolicy(6, 20, 2, CLASS_LOWER | CLASS_UPPER | CLASS_DIGIT);
+
+    // Largest supported run limit, so per-residue bookkeeping fits in one long bitmask
+    static final int MAX_RUN_LIMIT = 63;
+
+    // Run lengths below this are looked up instead of divided
+    private static final int RUN_TABLE_SIZE = 256;
+
+    // Class of every Latin-1 character, shared by all policies
+    private static final byte[] LATIN1_CLASSES = new byte[256];
+
+    static {
+        for (int c = 0; c < 256; c++) {
+            LATIN1_CLASSES[c] = (byte) classOfSlow((char) c);
+        }
+    }
+
+    final int minLength;
+    final int maxLength;
+    final int maxRun;
+    final int requiredClasses;
+
+    // runTable[L] = (replacements for a run of L) << 6 | (L % (maxRun + 1))
+    private final int[] runTable;
+
+    /**
+     * Compiles a policy.
+     *
+     * @param minLength       minimum PIN length (inclusive)
+     * @param maxLength       maximum PIN length (inclusive)
+     * @param maxRun          longest allowed run of one repeated character (2 means "no three repeats")
+     * @param requiredClasses CLASS_* bits that must each appear at least once
+     */
+    public PinPolicy(int minLength, int maxLength, int maxRun, int requiredClasses) {
+        if (minLength < 0 || maxLength < minLength || maxLength < 1) {
+            throw new IllegalArgumentException("Invalid length window [" + minLength + ", " + maxLength + "]");
+        }
+        if (maxRun < 1 || maxRun > MAX_RUN_LIMIT) {
+            throw new IllegalArgumentException("Run limit must be between 1 and " + MAX_RUN_LIMIT);
+        }
+        if ((requiredClasses & ~ALL_CLASSES) != 0 || Integer.bitCount(requiredClasses) > maxLength) {
+            throw new IllegalArgumentException("Invalid required classes: " + requiredClasses);
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.maxRun = maxRun;
+        this.requiredClasses = requiredClasses;
+
+        int period = maxRun + 1;
+        runTable = new int[RUN_TABLE_SIZE];
+        for (int length = 0; length < RUN_TABLE_SIZE; length++) {
+            runTable[length] = (length / period) << 6 | (length % period);
+        }
+    }
+
+    /**
+     * Character class bits of c.
+     */
+    static int classOf(char c) {
+        return c < 256 ? LATIN1_CLASSES[c] : classOfSlow(c);
+    }
+
+    private static int classOfSlow(char c) {
+        if (Character.isLowerCase(c)) return CLASS_LOWER;
+        if (Character.isUpperCase(c)) return CLASS_UPPER;
+        if (Character.isDigit(c)) return CLASS_DIGIT;
+        if (Character.isLetter(c) || Character.isWhitespace(c) || Character.isISOControl(c)) return 0;
+        return CLASS_SYMBOL;
+    }
+
+    /**
+     * Minimum number of insertions, deletions and replacements that make pin satisfy this policy.
+     */
+    public int minimumChanges(CharSequence pin) {
+        return (int) evaluate(pin, 0, pin.length());
+    }
+
+    /**
+     * Scores the PIN stored in pins[from, to) without allocating.
+     * In-range PINs take a single pass. Out-of-range PINs whose runs need the deletion or insertion
+     * budget shared out rescan the input once per distinct run residue present.
+     *
+     * @return the minimum number of changes in the low 32 bits and the RULE_* bitmask of
+     *         violated rules in the high 32 bits
+     */
+    long evaluate(CharSequence pins, int from, int to) {
+        int n = to - from;
+        int period = maxRun + 1;
+
+        int classes = 0;       // bitmask of character classes present
+        int replaceNeeded = 0; // sum of L / (maxRun + 1) over all runs
+        int freeDrops = 0;     // short PINs: insertions that each save one replacement
+        int fullCycles = 0;    // short PINs: groups of (maxRun + 1) insertions saving maxRun replacements
+        long residues = 0;     // bit m set if a run with L % (maxRun + 1) == m needs fixing
+        long partials = 0;     // bit p set if some run has p replacements left in its last cycle
+
+        for (int i = from; i < to; ) {
+            char c = pins.charAt(i);
+            classes |= classOf(c);
+            int j = i + 1;
+            while (j < to && pins.charAt(j) == c) {
+                j++;
+            }
+            int runLength = j - i;
+            if (runLength > maxRun) {
+                int info = runLength < RUN_TABLE_SIZE
+                        ? runTable[runLength]
+                        : (runLength / period) << 6 | (runLength % period);
+                int replacements = info >>> 6;
+                int residue = info & 63;
+                replaceNeeded += replacements;
+                residues |= 1L << residue;
+                if (n < minLength) {
+                    int free = Math.min(replacements, maxRun - residue);
+                    int left = replacements - free;
+                    freeDrops += free;
+                    fullCycles += left / maxRun;
+                    partials |= 1L << (left % maxRun);
+                }
+            }
+            i = j;
+        }
+
+        int missing = requiredClasses & ~classes;
+        int missingTypes = Integer.bitCount(missing);
+
+        long rules = 0;
+        if ((missing & CLASS_LOWER) != 0) rules |= RULE_MISSING_LOWER;
+        if ((missing & CLASS_UPPER) != 0) rules |= RULE_MISSING_UPPER;
+        if ((missing & CLASS_DIGIT) != 0) rules |= RULE_MISSING_DIGIT;
+        if ((missing & CLASS_SYMBOL) != 0) rules |= RULE_MISSING_SYMBOL;
+        if (replaceNeeded > 0) rules |= RULE_REPEATS;
+
+        // Too short: every insertion is mandatory, so place them where they also break runs
+        if (n < minLength) {
+            int insertions = minLength - n;
+            int saved = insertionSavings(pins, from, to, insertions, replaceNeeded,
+                    freeDrops, fullCycles, partials & ~1L);
+            int changes = Math.max(missingTypes, insertions + replaceNeeded - saved);
+            return (rules | RULE_TOO_SHORT) << 32 | changes;
+        }
+
+        // Within range: each replacement can fix a run and supply a missing class at once
+        if (n <= maxLength) {
+            return rules << 32 | Math.max(replaceNeeded, missingTypes);
+        }
+
+        // Too long: spend mandatory deletions where they save the most replacements.
+        // A run with residue m saves its first replacement after m + 1 deletions,
+        // every further replacement costs maxRun + 1 deletions.
+        int over = n - maxLength;
+        int deletionsLeft = over;
+        for (int residue = 0; residue < maxRun && deletionsLeft > residue && replaceNeeded > 0; residue++) {
+            if ((residues & (1L << residue)) == 0) {
+                continue;
+            }
+            int runs = countRunsWithResidue(pins, from, to, residue);
+            int used = Math.min(runs, deletionsLeft / (residue + 1));
+            replaceNeeded -= used;
+            deletionsLeft -= used * (residue + 1);
+        }
+        replaceNeeded -= Math.min(replaceNeeded, deletionsLeft / period);
+
+        return (rules | RULE_TOO_LONG) << 32 | (over + Math.max(replaceNeeded, missingTypes));
+    }
+
+    /**
+     * Replacements saved by placing the given number of mandatory insertions inside runs.
+     * An insertion next to a run boundary saves a replacement outright while the run's
+     * residue allows it ("free" drops); after that every maxRun + 1 insertions save maxRun
+     * replacements, and a run's last partial cycle of p replacements takes p + 1 insertions.
+     * Larger cycles are filled first since each touched cycle wastes exactly one insertion.
+     */
+    private int insertionSavings(CharSequence pins, int from, int to, int insertions, int replaceNeeded,
+                                 int freeDrops, int fullCycles, long partials) {
+        if (insertions <= freeDrops) {
+            return insertions;
+        }
+        int saved = freeDrops;
+        int left = insertions - freeDrops;
+        int period = maxRun + 1;
+
+        long fullInsertions = (long) fullCycles * period;
+        if (left <= fullInsertions) {
+            return saved + left - (left + period - 1) / period;
+        }
+        saved += fullCycles * maxRun;
+        left -= (int) fullInsertions;
+
+        for (int drops = maxRun - 1; drops >= 1 && left > 0; drops--) {
+            if ((partials & (1L << drops)) == 0) {
+                continue;
+            }
+            int cycles = countPartialCycles(pins, from, to, drops);
+            int whole = Math.min(cycles, left / (drops + 1));
+            saved += whole * drops;
+            left -= whole * (drops + 1);
+            if (whole < cycles && left > 0) {
+                // Last touched cycle is only partly filled
+                saved += left - 1;
+                left = 0;
+            }
+        }
+        return Math.min(saved, replaceNeeded);
+    }
+
+    /**
+     * Number of runs longer than maxRun with the given length residue mod (maxRun + 1).
+     */
+    private int countRunsWithResidue(CharSequence pins, int from, int to, int residue) {
+        int period = maxRun + 1;
+        int count = 0;
+        for (int i = from; i < to; ) {
+            char c = pins.charAt(i);
+            int j = i + 1;
+            while (j < to && pins.charAt(j) == c) {
+                j++;
+            }
+            int runLength = j - i;
+            if (runLength > maxRun && runLength % period == residue) {
+                count++;
+            }
+            i = j;
+        }
+        return count;
+    }
+
+    /**
+     * Number of runs whose last insertion cycle saves exactly the given number of replacements.
+     */
+    private int countPartialCycles(CharSequence pins, int from, int to, int drops) {
+        int period = maxRun + 1;
+        int count = 0;
+        for (int i = from; i < to; ) {
+            char c = pins.charAt(i);
+            int j = i + 1;
+            while (j < to && pins.charAt(j) == c) {
+                j++;
+            }
+            int runLength = j - i;
+            if (runLength > maxRun) {
+                int replacements = runLength / period;
+                int left = replacements - Math.min(replacements, maxRun - runLength % period);
+                if (left % maxRun == drops) {
+                    count++;
+                }
+            }
+            i = j;
+        }
+        return count;
+    }
+
+    // SWAR constants: one bit or byte value repeated in every byte of a long
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long ONES = 0x0101010101010101L;
+
+    // Longest run limit the SWAR run check handles (a run of maxRun + 1 must fit in one word)
+    private static final int SWAR_MAX_RUN = 6;
+
+    /**
+     * ASCII fast path for byte input: checks eight bytes per step for character classes and for
+     * runs longer than maxRun using SWAR arithmetic on longs. When the PIN is pure ASCII and has
+     * no over-long run (the common case in bulk audits) the result follows from the class mask
+     * and the length alone, so it is returned directly.
+     *
+     * @return the same packed result as evaluate(), or -1 if the PIN has non-ASCII bytes or a run
+     *         that needs fixing, in which case the caller falls back to the scalar evaluate()
+     */
+    long quickEvaluateAscii(ByteBuffer bytes, int from, int to) {
+        if (maxRun > SWAR_MAX_RUN) {
+            return -1;
+        }
+        int classes = 0;
+        int step = 8 - maxRun; // every run start is covered by a word holding the whole run
+        int i = from;
+        for (; i + 8 <= to; i += step) {
+            long word = bytes.getLong(i); // big-endian: byte i is the most significant
+            if ((word & HIGH_BITS) != 0) {
+                return -1;
+            }
+            classes |= swarClasses(word);
+
+            // equalNext has the high bit of byte k set when byte k equals byte k + 1
+            long diff = word ^ (word << 8);
+            long equalNext = ~(((diff & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | diff | LOW_SEVEN_BITS);
+            equalNext &= 0xFFFFFFFFFFFFFF00L;
+            long run = equalNext;
+            for (int k = 1; k < maxRun; k++) {
+                run &= equalNext << (8 * k);
+            }
+            if (run != 0) {
+                return -1;
+            }
+        }
+
+        // Scalar tail: classes of the remaining bytes and runs starting at or after i
+        int runLength = 0;
+        byte previous = 0;
+        for (int k = i; k < to; k++) {
+            byte b = bytes.get(k);
+            if (b < 0) {
+                return -1;
+            }
+            classes |= LATIN1_CLASSES[b];
+            runLength = k > i && b == previous ? runLength + 1 : 1;
+            if (runLength > maxRun) {
+                return -1;
+            }
+            previous = b;
+        }
+
+        int n = to - from;
+        int missing = requiredClasses & ~classes;
+        int missingTypes = Integer.bitCount(missing);
+        long rules = 0;
+        if ((missing & CLASS_LOWER) != 0) rules |= RULE_MISSING_LOWER;
+        if ((missing & CLASS_UPPER) != 0) rules |= RULE_MISSING_UPPER;
+        if ((missing & CLASS_DIGIT) != 0) rules |= RULE_MISSING_DIGIT;
+        if ((missing & CLASS_SYMBOL) != 0) rules |= RULE_MISSING_SYMBOL;
+
+        // No runs to fix, so only length and missing classes remain
+        if (n < minLength) {
+            return (rules | RULE_TOO_SHORT) << 32 | Math.max(minLength - n, missingTypes);
+        }
+        if (n <= maxLength) {
+            return rules << 32 | missingTypes;
+        }
+        return (rules | RULE_TOO_LONG) << 32 | (n - maxLength + missingTypes);
+    }
+
+    /**
+     * Class bits present among eight ASCII bytes.
+     */
+    private static int swarClasses(long word) {
+        long lower = inRange(word, 'a', 'z');
+        long upper = inRange(word, 'A', 'Z');
+        long digit = inRange(word, '0', '9');
+        long symbol = inRange(word, '!', '~') & ~(lower | upper | digit);
+        int classes = 0;
+        if (lower != 0) classes |= CLASS_LOWER;
+        if (upper != 0) classes |= CLASS_UPPER;
+        if (digit != 0) classes |= CLASS_DIGIT;
+        if (symbol != 0) classes |= CLASS_SYMBOL;
+        return classes;
+    }
+
+    /**
+     * High bit of every byte of word (all below 0x80) that lies in [lo, hi].
+     */
+    private static long inRange(long word, int lo, int hi) {
+        long atLeastLo = ((word | HIGH_BITS) - lo * ONES) & HIGH_BITS;
+        long aboveHi = ((word | HIGH_BITS) - (hi + 1) * ONES) & HIGH_BITS;
+        return atLeastLo & ~aboveHi;
+    }
+
+    // Characters an exact search may insert, by class; two per class so inserted characters
+    // never have to repeat each other
+    private static final String[] FRESH_CANDIDATES = {
+        "abcdefghijklmnopqrstuvwxyz", "ABCDEFGHIJKLMNOPQRSTUVWXYZ", "0123456789", "!@#$%^&*"
+    };
+
+    /**
+     * Exact minimum number of changes by shortest-path search; kept to check evaluate.
+     * Builds the target left to right: each step deletes the next PIN character, or appends a
+     * character that either consumes the next PIN character (free if equal, else a replacement)
+     * or is inserted. States are (PIN characters consumed, target length, last character, run
+     * length, classes present), and only valid targets are ever built. Characters other than
+     * the PIN's own are interchangeable within a class, so two fresh ones per class suffice.
+     * The state space grows with pin length * maxLength, so this is for short PINs only.
+     */
+    int minimumChangesBruteForce(CharSequence pin) {
+        int n = pin.length();
+        StringBuilder chars = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (chars.indexOf(String.valueOf(pin.charAt(i))) < 0) {
+                chars.append(pin.charAt(i));
+            }
+        }
+        for (String candidates : FRESH_CANDIDATES) {
+            int added = 0;
+            for (int k = 0; k < candidates.length() && added < 2; k++) {
+                char c = candidates.charAt(k);
+                if (chars.indexOf(String.valueOf(c)) < 0) {
+                    chars.append(c);
+                    added++;
+                }
+            }
+        }
+        int alphabet = chars.length();
+
+        // state = ((((consumed * (maxLength + 1) + length) * (alphabet + 1) + last) * (maxRun + 1) + run) << 4) | classes
+        int states = (n + 1) * (maxLength + 1) * (alphabet + 1) * (maxRun + 1) << 4;
+        int[] distance = new int[states];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int start = (alphabet * (maxRun + 1)) << 4; // nothing consumed or built, no last character
+        distance[start] = 0;
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            int state = queue.pollFirst();
+            int d = distance[state];
+            int classes = state & 15;
+            int rest = state >>> 4;
+            int run = rest % (maxRun + 1);
+            rest /= maxRun + 1;
+            int last = rest % (alphabet + 1);
+            rest /= alphabet + 1;
+            int length = rest % (maxLength + 1);
+            int consumed = rest / (maxLength + 1);
+
+            if (consumed == n && length >= minLength && (classes & requiredClasses) == requiredClasses) {
+                return d; // 0-1 BFS pops states in order of distance
+            }
+            if (consumed < n) {
+                relax(distance, queue, encode(consumed + 1, length, last, run, classes, alphabet), d, 1);
+            }
+            if (length == maxLength) {
+                continue;
+            }
+            for (int a = 0; a < alphabet; a++) {
+                int newRun = a == last ? run + 1 : 1;
+                if (newRun > maxRun) {
+                    continue;
+                }
+                char c = chars.charAt(a);
+                int newClasses = classes | classOf(c);
+                relax(distance, queue, encode(consumed, length + 1, a, newRun, newClasses, alphabet), d, 1);
+                if (consumed < n) {
+                    relax(distance, queue, encode(consumed + 1, length + 1, a, newRun, newClasses, alphabet), d,
+                            c == pin.charAt(consumed) ? 0 : 1);
+                }
+            }
+        }
+        throw new IllegalStateException("No valid PIN reachable under " + this);
+    }
+
+    private int encode(int consumed, int length, int last, int run, int classes, int alphabet) {
+        return (((consumed * (maxLength + 1) + length) * (alphabet + 1) + last) * (maxRun + 1) + run) << 4 | classes;
+    }
+
+    private static void relax(int[] distance, ArrayDeque<Integer> queue, int state, int d, int cost) {
+        if (d + cost < distance[state]) {
+            distance[state] = d + cost;
+            if (cost == 0) {
+                queue.addFirst(state);
+            } else {
+                queue.addLast(state);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PinPolicy[length " + minLength + ".." + maxLength + ", max run " + maxRun
+                + ", required classes " + Integer.toBinaryString(requiredClasses) + "]";
+    }
+
+    // ============ TESTING ============
+    public static void main(String[] args) {
+        PinPolicy strict = new PinPolicy(8, 64, 1, ALL_CLASSES);
+        String[][] cases = {
+            // pin, expected changes under DEFAULT, expected changes under strict
+            {"X1!", "3", "5"},
+            {"123456", "2", "3"},
+            {"Aa1234!", "0", "1"},
+            {"aaaaaaaaaaaaaaaaaaaaaaaaaaaaaa", "16", "15"},
+            {"Ab1!Cd2@Ef", "0", "0"},
+        };
+
+        int passed = 0;
+        for (String[] t : cases) {
+            int defaultResult = DEFAULT.minimumChanges(t[0]);
+            int strictResult = strict.minimumChanges(t[0]);
+            boolean success = defaultResult == Integer.parseInt(t[1]) && strictResult == Integer.parseInt(t[2]);
+            if (success) passed++;
+            System.out.printf("PIN '%s': default %d (expected %s), strict %d (expected %s) -> %s%n",
+                    t[0], defaultResult, t[1], strictResult, t[2], success ? "PASS" : "FAIL");
+        }
+        System.out.println("Passed " + passed + " / " + cases.length + " tests.");
+
+        // Random short PINs and random policies against the exact search
+        Random random = new Random(3);
+        String alphabet = "aab1!AA";
+        boolean agree = true;
+        int checks = 0;
+        for (int t = 0; t < 12_000 && agree; t++) {
+            int minLength = random.nextInt(7);
+            int maxLength = Math.max(1, minLength + random.nextInt(5));
+            int requiredClasses = random.nextInt(16);
+            while (Integer.bitCount(requiredClasses) > maxLength) {
+                requiredClasses &= requiredClasses - 1;
+            }
+            PinPolicy policy = new PinPolicy(minLength, maxLength, 1 + random.nextInt(3), requiredClasses);
+            StringBuilder pin = new StringBuilder();
+            int pinLength = random.nextInt(12);
+            for (int i = 0; i < pinLength; i++) {
+                // Bias towards repeats so long runs show up
+                boolean repeat = i > 0 && random.nextInt(3) > 0;
+                pin.append(repeat ? pin.charAt(i - 1) : alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            checks++;
+            if (policy.minimumChanges(pin) != policy.minimumChangesBruteForce(pin)) {
+                System.out.println("Mismatch on '" + pin + "' under " + policy + ": "
+                        + policy.minimumChanges(pin) + " vs " + policy.minimumChangesBruteForce(pin));
+                agree = false;
+            }
+        }
+        System.out.println("Random PINs against exact search (" + checks + "): " + (agree ? "PASSED" : "FAILED"));
+    }
+}
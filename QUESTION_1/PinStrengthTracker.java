@@ -0,0 +1,352 @@
+// Keystroke-by-keystroke PIN strength scoring
+// ===========================================
+// The PIN-entry widget used to rescore the whole input after every keystroke. The tracker
+// instead keeps the character class counts and the run structure of the current input, and
+// adjusts only the runs a keystroke touches:
+//   - append / deleteLast / replace(i, c): O(log length)
+// score() is O(1) for in-range input, O(maxRun) for over-long input, and for input shorter
+// than the policy minimum it rescores at most minLength characters.
+// Overwriting the middle of a run splits it, and the score needs the exact lengths of both
+// halves. The run boundaries (positions whose character differs from the previous one) are
+// kept as 0/1 flags in a Fenwick tree: the run holding i starts at the prefix(i)-th boundary
+// and ends before the next one, and binary lifting over the tree finds the k-th boundary in
+// O(log length). A keystroke changes at most two flags.
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class PinStrengthTracker implements CharSequence {
+
+    private final PinPolicy policy;
+    private final int period; // maxRun + 1
+
+    private char[] text = new char[32];
+    private int length;
+
+    // Fenwick tree over the run boundary flags of text[0..length), 1-based, capacity a power of two
+    private int[] boundaries = new int[33];
+    private int runs; // number of boundaries, i.e. of runs
+
+    private final int[] classCounts = new int[4]; // lowercase, uppercase, digit, symbol
+    private int replaceNeeded;                    // sum of L / (maxRun + 1) over runs longer than maxRun
+    private final int[] runsByResidue;            // runs longer than maxRun, by L % (maxRun + 1)
+
+    public PinStrengthTracker() {
+        this(PinPolicy.DEFAULT);
+    }
+
+    public PinStrengthTracker(PinPolicy policy) {
+        this.policy = policy;
+        this.period = policy.maxRun + 1;
+        this.runsByResidue = new int[period];
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range for length " + length);
+        }
+        return text[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(text, 0, length);
+    }
+
+    /**
+     * Types c at the end of the input.
+     */
+    public void append(char c) {
+        if (length == text.length) {
+            grow();
+        }
+        if (length > 0 && text[length - 1] == c) {
+            int runLength = length - runStartOf(length - 1);
+            changeRun(runLength, runLength + 1);
+        } else {
+            changeRun(0, 1);
+            addBoundary(length, 1);
+        }
+        text[length++] = c;
+        countClass(c, 1);
+    }
+
+    /**
+     * Removes the last character (backspace at the end of the input).
+     */
+    public void deleteLast() {
+        if (length == 0) {
+            throw new IllegalStateException("Nothing to delete");
+        }
+        int start = runStartOf(length - 1);
+        changeRun(length - start, length - start - 1);
+        if (start == length - 1) {
+            addBoundary(start, -1);
+        }
+        countClass(text[--length], -1);
+    }
+
+    /**
+     * Overwrites the character at index with c. The run holding index is split around it, and
+     * c joins the run to its left or right when index is at the end of its run and the
+     * neighbour holds c. Both ends are found through the boundary tree.
+     */
+    public void replace(int index, char c) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range for length " + length);
+        }
+        char old = text[index];
+        if (old == c) {
+            return;
+        }
+
+        int start = runStartOf(index);
+        int end = runEndOf(index);
+        int joined = 1; // length of the run c ends up in
+        if (index == start && start > 0 && text[start - 1] == c) {
+            int leftLength = start - runStartOf(start - 1);
+            removeRun(leftLength);
+            joined += leftLength;
+        }
+        if (index == end - 1 && end < length && text[end] == c) {
+            int rightLength = runEndOf(end) - end;
+            removeRun(rightLength);
+            joined += rightLength;
+        }
+        removeRun(end - start);
+        changeRun(0, index - start);
+        changeRun(0, joined);
+        changeRun(0, end - index - 1);
+
+        // Only the flags at index and index + 1 depend on text[index]
+        boolean wasBoundary = index == 0 || text[index - 1] != old;
+        boolean nextWasBoundary = index + 1 < length && text[index + 1] != old;
+        text[index] = c;
+        boolean isBoundary = index == 0 || text[index - 1] != c;
+        boolean nextIsBoundary = index + 1 < length && text[index + 1] != c;
+        if (wasBoundary != isBoundary) {
+            addBoundary(index, isBoundary ? 1 : -1);
+        }
+        if (nextWasBoundary != nextIsBoundary) {
+            addBoundary(index + 1, nextIsBoundary ? 1 : -1);
+        }
+
+        countClass(old, -1);
+        countClass(c, 1);
+    }
+
+    /**
+     * Minimum number of changes that make the current input satisfy the policy.
+     */
+    public int score() {
+        int missing = 0;
+        for (int k = 0; k < 4; k++) {
+            if ((policy.requiredClasses & (1 << k)) != 0 && classCounts[k] == 0) {
+                missing++;
+            }
+        }
+
+        // Short input: at most minLength characters, so rescoring them is bounded by the policy
+        if (length < policy.minLength) {
+            return (int) policy.evaluate(this, 0, length);
+        }
+
+        if (length <= policy.maxLength) {
+            return Math.max(replaceNeeded, missing);
+        }
+
+        // Over-long input: the same deletion order as PinPolicy.evaluate, from the run histogram
+        int over = length - policy.maxLength;
+        int deletionsLeft = over;
+        int replacements = replaceNeeded;
+        for (int residue = 0; residue < policy.maxRun && deletionsLeft > residue; residue++) {
+            int used = Math.min(runsByResidue[residue], deletionsLeft / (residue + 1));
+            replacements -= used;
+            deletionsLeft -= used * (residue + 1);
+        }
+        replacements -= Math.min(replacements, deletionsLeft / period);
+        return over + Math.max(replacements, missing);
+    }
+
+    private void removeRun(int runLength) {
+        changeRun(runLength, 0);
+    }
+
+    /**
+     * Index where the run containing i begins.
+     */
+    private int runStartOf(int i) {
+        return boundary(boundariesUpTo(i));
+    }
+
+    /**
+     * Index just past the end of the run containing i.
+     */
+    private int runEndOf(int i) {
+        int k = boundariesUpTo(i);
+        return k == runs ? length : boundary(k + 1);
+    }
+
+    /**
+     * Number of run boundaries in [0, i].
+     */
+    private int boundariesUpTo(int i) {
+        int count = 0;
+        for (int j = i + 1; j > 0; j -= j & -j) {
+            count += boundaries[j];
+        }
+        return count;
+    }
+
+    /**
+     * Index of the k-th run boundary (k >= 1), by binary lifting over the tree.
+     */
+    private int boundary(int k) {
+        int capacity = boundaries.length - 1;
+        int position = 0;
+        for (int step = capacity; step > 0; step >>= 1) {
+            if (position + step <= capacity && boundaries[position + step] < k) {
+                position += step;
+                k -= boundaries[position];
+            }
+        }
+        return position;
+    }
+
+    private void addBoundary(int i, int delta) {
+        runs += delta;
+        for (int j = i + 1; j < boundaries.length; j += j & -j) {
+            boundaries[j] += delta;
+        }
+    }
+
+    /**
+     * Doubles the capacity, rebuilding the tree from the text in O(length).
+     */
+    private void grow() {
+        int capacity = text.length * 2;
+        text = Arrays.copyOf(text, capacity);
+        boundaries = new int[capacity + 1];
+        for (int i = 0; i < length; i++) {
+            boundaries[i + 1] = i == 0 || text[i] != text[i - 1] ? 1 : 0;
+        }
+        for (int j = 1; j <= capacity; j++) {
+            int parent = j + (j & -j);
+            if (parent <= capacity) {
+                boundaries[parent] += boundaries[j];
+            }
+        }
+    }
+
+    /**
+     * Replaces a run of oldLength by one of newLength in the aggregates (0 means no run).
+     */
+    private void changeRun(int oldLength, int newLength) {
+        if (oldLength > policy.maxRun) {
+            replaceNeeded -= oldLength / period;
+            runsByResidue[oldLength % period]--;
+        }
+        if (newLength > policy.maxRun) {
+            replaceNeeded += newLength / period;
+            runsByResidue[newLength % period]++;
+        }
+    }
+
+    private void countClass(char c, int delta) {
+        int cls = PinPolicy.classOf(c);
+        if (cls != 0) {
+            classCounts[Integer.numberOfTrailingZeros(cls)] += delta;
+        }
+    }
+
+    // ============ TESTING ============
+    public static void main(String[] args) {
+        // Typing the examples one key at a time
+        String[] pins = {"X1!", "123456", "Aa1234!"};
+        for (String pin : pins) {
+            PinStrengthTracker tracker = new PinStrengthTracker();
+            StringBuilder scores = new StringBuilder();
+            for (char c : pin.toCharArray()) {
+                tracker.append(c);
+                scores.append(tracker.score()).append(' ');
+            }
+            System.out.println("'" + pin + "' scores after each key: " + scores.toString().trim());
+        }
+
+        // Randomized equivalence against the batch scorer
+        PinPolicy[] policies = {PinPolicy.DEFAULT, new PinPolicy(8, 12, 1, PinPolicy.ALL_CLASSES)};
+        Random random = new Random(42);
+        String alphabet = "aAb1!";
+        int checks = 0;
+        boolean passed = true;
+        for (PinPolicy policy : policies) {
+            PinStrengthTracker tracker = new PinStrengthTracker(policy);
+            StringBuilder expected = new StringBuilder();
+            for (int step = 0; step < 200_000 && passed; step++) {
+                int action = random.nextInt(10);
+                char c = alphabet.charAt(random.nextInt(alphabet.length()));
+                if (action < 5 || expected.length() == 0) {
+                    // Bias towards repeats so long runs show up
+                    if (expected.length() > 0 && random.nextBoolean()) c = expected.charAt(expected.length() - 1);
+                    if (expected.length() < 40) {
+                        tracker.append(c);
+                        expected.append(c);
+                    }
+                } else if (action < 8) {
+                    tracker.deleteLast();
+                    expected.setLength(expected.length() - 1);
+                } else {
+                    int index = random.nextInt(expected.length());
+                    tracker.replace(index, c);
+                    expected.setCharAt(index, c);
+                }
+                checks++;
+                if (tracker.score() != policy.minimumChanges(expected) || !tracker.toString().contentEquals(expected)) {
+                    System.out.println("Mismatch on '" + expected + "' under " + policy);
+                    passed = false;
+                }
+            }
+        }
+        System.out.println("Randomized equivalence (" + checks + " keystrokes): " + (passed ? "PASS" : "FAIL"));
+
+        // Replaces inside one long run: splitting it, joining the pieces back, and touching its ends
+        int runLength = 1 << 20;
+        int replaces = 0;
+        boolean longRunPassed = true;
+        long startTime = System.nanoTime();
+        for (PinPolicy policy : policies) {
+            PinStrengthTracker tracker = new PinStrengthTracker(policy);
+            StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < runLength; i++) {
+                tracker.append('a');
+                expected.append('a');
+            }
+            for (int step = 0; step < 200_000 && longRunPassed; step++) {
+                int index = random.nextInt(4) == 0 ? (random.nextBoolean() ? 0 : runLength - 1) : random.nextInt(runLength);
+                char c = random.nextInt(3) == 0 ? 'a' : alphabet.charAt(random.nextInt(alphabet.length()));
+                tracker.replace(index, c);
+                expected.setCharAt(index, c);
+                replaces++;
+                if (step % 10_000 == 0 && (tracker.score() != policy.minimumChanges(expected)
+                        || !tracker.toString().contentEquals(expected))) {
+                    System.out.println("Mismatch on a run of " + runLength + " under " + policy);
+                    longRunPassed = false;
+                }
+            }
+            longRunPassed &= tracker.score() == policy.minimumChanges(expected);
+        }
+        System.out.printf("Long run replaces (%d on %d characters, %.0f ms): %s%n", replaces, runLength,
+                (System.nanoTime() - startTime) / 1e6, longRunPassed ? "PASS" : "FAIL");
+    }
+}
@@ -41,12 +41,48 @@ Explanation: Already meets all criteria
 */
 
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class SecureBankPIN {
 
+    // Number of histogram buckets in a batch audit; the last one collects every score >= 31
+    static final int HISTOGRAM_BUCKETS = 32;
+
+    // PINs handed to one fork-join leaf before it stops splitting
+    private static final int AUDIT_LEAF_SIZE = 2048;
+
+    /**
+     * Result of a batch audit: the change count of every PIN plus a histogram of those counts.
+     */
+    public static final class PinAuditResult {
+        final int[] changes;    // changes[i] = minimum changes for PIN i
+        final long[] histogram; // histogram[s] = number of PINs needing s changes (last bucket is open-ended)
+
+        PinAuditResult(int[] changes, long[] histogram) {
+            this.changes = changes;
+            this.histogram = histogram;
+        }
+
+        /** Minimum changes of every PIN, in input order. The array is not copied. */
+        public int[] changes() {
+            return changes;
+        }
+
+        /**
+         * Number of PINs needing each change count; the last of the HISTOGRAM_BUCKETS buckets
+         * also holds every larger count. The array is not copied.
+         */
+        public long[] histogram() {
+            return histogram;
+        }
+    }
+
     /**
      * Method to calculate the minimum number of changes required to make the PIN strong.
      * 
@@ -54,82 +90,471 @@ public class SecureBankPIN {
      * @return The minimum number of changes required
      */
     public static int minimumChangesForStrongPIN(String pin_code) {
-        int n = pin_code.length();
+        return minimumChanges(pin_code, 0, pin_code.length());
+    }
+
+    /**
+     * Minimum number of changes for the PIN stored in pins[from, to).
+     */
+    static int minimumChanges(CharSequence pins, int from, int to) {
+        return (int) evaluate(pins, from, to);
+    }
+
+    /**
+     * Scores the PIN stored in pins[from, to) against the bank's policy.
+     *
+     * @return the minimum number of changes in the low 32 bits and the PinPolicy.RULE_* bitmask
+     *         of violated rules in the high 32 bits
+     */
+    static long evaluate(CharSequence pins, int from, int to) {
+        return PinPolicy.DEFAULT.evaluate(pins, from, to);
+    }
+
+    /**
+     * Scores many PINs packed back to back in one byte array (ISO-8859-1, one byte per character).
+     * PIN i occupies pins[offsets[i], offsets[i + 1]), so offsets holds one more entry than there are PINs.
+     * Runs on the common fork-join pool.
+     *
+     * @param pins    packed PIN bytes
+     * @param offsets start offset of every PIN followed by the end offset of the last one
+     * @return change counts for every PIN plus their histogram
+     */
+    public static PinAuditResult auditPins(byte[] pins, int[] offsets) {
+        return auditPins(pins, offsets, PinPolicy.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #auditPins(byte[], int[])} scored against a custom policy.
+     */
+    public static PinAuditResult auditPins(byte[] pins, int[] offsets, PinPolicy policy) {
+        return auditPins(new Latin1Chars(ByteBuffer.wrap(pins)), offsets, policy, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #auditPins(byte[], int[])} for PINs packed in a CharBuffer.
+     * Offsets are relative to the buffer's current position.
+     */
+    public static PinAuditResult auditPins(CharBuffer pins, int[] offsets) {
+        return auditPins(pins, offsets, PinPolicy.DEFAULT, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Scores every packed PIN on the given pool. Each leaf task scores its slice straight into
+     * the shared result array and keeps a private histogram, so nothing is allocated per PIN.
+     */
+    static PinAuditResult auditPins(CharSequence pins, int[] offsets, PinPolicy policy, ForkJoinPool pool) {
+        if (pins == null || offsets == null || offsets.length == 0) {
+            throw new IllegalArgumentException("Invalid packed PIN input");
+        }
+        int count = offsets.length - 1;
+        int[] changes = new int[count];
+        long[] histogram = pool.invoke(new PinAuditTask(pins, offsets, policy, changes, 0, count));
+        return new PinAuditResult(changes, histogram);
+    }
 
-        // Check for missing character types
-        boolean hasLower = false, hasUpper = false, hasDigit = false;
-        for (char c : pin_code.toCharArray()) {
-            if (Character.isLowerCase(c)) hasLower = true;
-            else if (Character.isUpperCase(c)) hasUpper = true;
-            else if (Character.isDigit(c)) hasDigit = true;
+    /**
+     * Fork-join task scoring PINs [lo, hi) and returning their histogram.
+     */
+    static class PinAuditTask extends RecursiveTask<long[]> {
+        private final CharSequence pins;
+        private final int[] offsets;
+        private final PinPolicy policy;
+        private final int[] changes;
+        private final int lo, hi;
+
+        PinAuditTask(CharSequence pins, int[] offsets, PinPolicy policy, int[] changes, int lo, int hi) {
+            this.pins = pins;
+            this.offsets = offsets;
+            this.policy = policy;
+            this.changes = changes;
+            this.lo = lo;
+            this.hi = hi;
         }
-        int missingTypes = 0;
-        if (!hasLower) missingTypes++;
-        if (!hasUpper) missingTypes++;
-        if (!hasDigit) missingTypes++;
 
-        // Case 1: Too short (n < 6)
-        if (n < 6) {
-            int insertionsNeeded = 6 - n;
-            return Math.max(insertionsNeeded, missingTypes);
+        @Override
+        protected long[] compute() {
+            if (hi - lo <= AUDIT_LEAF_SIZE) {
+                long[] histogram = new long[HISTOGRAM_BUCKETS];
+                // Byte input tries the SWAR ASCII path first
+                ByteBuffer bytes = pins instanceof Latin1Chars ? ((Latin1Chars) pins).bytes() : null;
+                for (int i = lo; i < hi; i++) {
+                    long result = bytes != null ? policy.quickEvaluateAscii(bytes, offsets[i], offsets[i + 1]) : -1;
+                    if (result < 0) {
+                        result = policy.evaluate(pins, offsets[i], offsets[i + 1]);
+                    }
+                    int score = (int) result;
+                    changes[i] = score;
+                    histogram[Math.min(score, HISTOGRAM_BUCKETS - 1)]++;
+                }
+                return histogram;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            PinAuditTask left = new PinAuditTask(pins, offsets, policy, changes, lo, mid);
+            left.fork();
+            long[] histogram = new PinAuditTask(pins, offsets, policy, changes, mid, hi).compute();
+            long[] leftHistogram = left.join();
+            for (int s = 0; s < HISTOGRAM_BUCKETS; s++) {
+                histogram[s] += leftHistogram[s];
+            }
+            return histogram;
+        }
+    }
+
+    /**
+     * Read-only CharSequence view over ISO-8859-1 bytes (heap or memory-mapped), so packed
+     * byte input can go through the same scorer as Strings without being decoded.
+     * Indices are absolute positions in the buffer.
+     */
+    static final class Latin1Chars implements CharSequence {
+        private final ByteBuffer bytes;
+
+        Latin1Chars(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        ByteBuffer bytes() {
+            return bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            byte[] copy = new byte[end - start];
+            bytes.duplicate().position(start).get(copy);
+            return new Latin1Chars(ByteBuffer.wrap(copy));
+        }
+
+        @Override
+        public String toString() {
+            byte[] copy = new byte[bytes.limit()];
+            bytes.duplicate().position(0).get(copy);
+            return new String(copy, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * Reusable output buffer for {@link #repairPIN(CharSequence, PinRepair)}: the repaired PIN,
+     * the edit script that produces it, and scratch space. Arrays only grow, so repairing
+     * many PINs with one buffer allocates nothing once it has reached the largest PIN's size.
+     *
+     * Edit positions refer to the original PIN. An INSERT at position p goes before original
+     * character p (p == length appends), and ops are listed in position order with inserts
+     * before a replace or delete at the same position.
+     */
+    public static final class PinRepair {
+        public static final byte INSERT = 0;
+        public static final byte DELETE = 1;
+        public static final byte REPLACE = 2;
+
+        char[] pin = new char[32];          // repaired PIN
+        int length;                         // repaired PIN length
+        byte[] opKinds = new byte[32];      // INSERT, DELETE or REPLACE
+        int[] opPositions = new int[32];    // position in the original PIN
+        char[] opChars = new char[32];      // character inserted or written (unused for DELETE)
+        int opCount;
+
+        // Scratch
+        private byte[] actions = new byte[32]; // per original character: KEEP, DELETE or REPLACE
+        private int[] runStarts = new int[16]; // runs of two or more identical characters
+        private int[] runLengths = new int[16];
+        private int runCount;
+        private final int[] classCounts = new int[3]; // kept lowercase, uppercase and digit characters
+
+        public String repairedPIN() {
+            return new String(pin, 0, length);
+        }
+
+        /** Number of edits in the script. */
+        public int opCount() {
+            return opCount;
+        }
+
+        /** INSERT, DELETE or REPLACE. */
+        public byte opKind(int i) {
+            checkOp(i);
+            return opKinds[i];
         }
 
-        // Identify runs of 3 or more identical consecutive characters
-        List<Integer> runs = new ArrayList<>();
+        /** Position of op i in the original PIN. */
+        public int opPosition(int i) {
+            checkOp(i);
+            return opPositions[i];
+        }
+
+        /** Character inserted or written by op i (undefined for DELETE). */
+        public char opChar(int i) {
+            checkOp(i);
+            return opChars[i];
+        }
+
+        private void checkOp(int i) {
+            if (i < 0 || i >= opCount) {
+                throw new IndexOutOfBoundsException("Op " + i + " out of range for " + opCount + " ops");
+            }
+        }
+
+        /**
+         * Human-readable form of op i, e.g. "replace 2 with 'A'".
+         */
+        public String describe(int i) {
+            switch (opKinds[i]) {
+                case INSERT: return "insert '" + opChars[i] + "' at " + opPositions[i];
+                case DELETE: return "delete " + opPositions[i];
+                default: return "replace " + opPositions[i] + " with '" + opChars[i] + "'";
+            }
+        }
+
+        private void reset(int n) {
+            if (actions.length < n) {
+                actions = new byte[Math.max(n, actions.length * 2)];
+            }
+            Arrays.fill(actions, 0, n, KEEP);
+            if (runStarts.length < n / 2 + 1) {
+                runStarts = new int[n / 2 + 1];
+                runLengths = new int[n / 2 + 1];
+            }
+            runCount = 0;
+            Arrays.fill(classCounts, 0);
+            length = 0;
+            opCount = 0;
+        }
+
+        private void emit(char c) {
+            if (length == pin.length) {
+                pin = Arrays.copyOf(pin, length * 2);
+            }
+            pin[length++] = c;
+        }
+
+        private void op(byte kind, int position, char c) {
+            if (opCount == opKinds.length) {
+                opKinds = Arrays.copyOf(opKinds, opCount * 2);
+                opPositions = Arrays.copyOf(opPositions, opCount * 2);
+                opChars = Arrays.copyOf(opChars, opCount * 2);
+            }
+            opKinds[opCount] = kind;
+            opPositions[opCount] = position;
+            opChars[opCount] = c;
+            opCount++;
+        }
+    }
+
+    // Per-character actions while planning a repair
+    private static final byte KEEP = 0;
+    private static final byte DELETE = 1;
+    private static final byte REPLACE = 2;
+
+    // Characters used for inserted and replaced positions, three per class so one always
+    // differs from both neighbours
+    private static final String[] CLASS_CANDIDATES = {"abc", "ABC", "012"};
+
+    /**
+     * Builds a minimal edit script that makes pin strong, and the resulting PIN, into out.
+     * Uses the same plan the scorer counts: mandatory deletions go to runs by mod 3 (one deletion
+     * for L % 3 == 0, two for L % 3 == 1, then three at a time), every third character of a
+     * remaining run is replaced, missing classes reuse those replacements, and short PINs get
+     * their insertions inside a run where that breaks it. Linear in the PIN length.
+     *
+     * @param pin the PIN to repair
+     * @param out reusable buffer receiving the repaired PIN and the edit script
+     * @return number of edits, equal to minimumChangesForStrongPIN(pin)
+     */
+    public static int repairPIN(CharSequence pin, PinRepair out) {
+        int n = pin.length();
+        out.reset(n);
+        byte[] actions = out.actions;
+
+        // Runs of two or more, and how many kept characters of each required class there are
+        int[] classCounts = out.classCounts;
         for (int i = 0; i < n; ) {
-            int j = i;
-            while (j < n && pin_code.charAt(j) == pin_code.charAt(i)) {
+            char c = pin.charAt(i);
+            int j = i + 1;
+            while (j < n && pin.charAt(j) == c) {
                 j++;
             }
-            int runLength = j - i;
-            if (runLength >= 3) {
-                runs.add(runLength);
+            addClass(classCounts, c, j - i);
+            if (j - i >= 2) {
+                out.runStarts[out.runCount] = i;
+                out.runLengths[out.runCount] = j - i;
+                out.runCount++;
             }
             i = j;
         }
 
-        // Case 2: Length is within [6, 20]
-        if (n <= 20) {
-            int replaceNeeded = 0;
-            for (int run : runs) {
-                replaceNeeded += run / 3;  // each run of L needs L//3 replacements
+        int insertInside = -1; // position of an insertion that splits a run (short PINs only)
+        int appended = 0;      // insertions appended at the end (short PINs only)
+        int replacements = 0;
+
+        if (n < 6) {
+            int insertions = 6 - n;
+            for (int r = 0; r < out.runCount; r++) {
+                int start = out.runStarts[r], runLength = out.runLengths[r];
+                if (runLength == 5) {
+                    // One insertion cannot split five, so replace the middle instead
+                    actions[start + 2] = REPLACE;
+                    addClass(classCounts, pin.charAt(start), -1);
+                    replacements++;
+                } else if (runLength >= 3) {
+                    insertInside = start + 2;
+                }
+            }
+            appended = insertInside >= 0 ? insertions - 1 : insertions;
+        } else {
+            if (n > 20) {
+                deleteForLength(pin, out, classCounts, n - 20);
+            }
+            // Every third kept character of a run is replaced
+            for (int r = 0; r < out.runCount; r++) {
+                int start = out.runStarts[r];
+                for (int k = 2; k < out.runLengths[r]; k += 3) {
+                    actions[start + k] = REPLACE;
+                    addClass(classCounts, pin.charAt(start), -1);
+                    replacements++;
+                }
             }
-            return Math.max(replaceNeeded, missingTypes);
         }
 
-        // Case 3: Too long (n > 20)
-        int over = n - 20; // number of deletions required
-        int deletionsLeft = over;
-
-        // Convert runs to array for mutation
-        int[] runArray = runs.stream().mapToInt(Integer::intValue).toArray();
-
-        // Use deletions optimally: prioritize runs by mod 3 (0, 1, 2)
-        // Why? Because deleting 1 char from run with mod 0 reduces replacement need by 1
-        for (int mod = 0; mod < 3 && deletionsLeft > 0; mod++) {
-            for (int i = 0; i < runArray.length && deletionsLeft > 0; i++) {
-                if (runArray[i] < 3) continue;
-                if (runArray[i] % 3 != mod) continue;
+        // Missing classes are written by new characters; replace extra characters if there are too few
+        int missing = 0;
+        for (int k = 0; k < 3; k++) {
+            if (classCounts[k] == 0) missing++;
+        }
+        int newChars = replacements + (insertInside >= 0 ? 1 : 0) + appended;
+        for (int i = 0; i < n && newChars < missing; i++) {
+            if (actions[i] != KEEP) continue;
+            int cls = classIndex(pin.charAt(i));
+            if (cls >= 0 && classCounts[cls] < 2) continue; // sole holder of a class
+            actions[i] = REPLACE;
+            if (cls >= 0) classCounts[cls]--;
+            newChars++;
+        }
 
-                // Max deletions we can use here to save one replacement
-                int deleteCost = (mod == 0) ? 1 : (mod == 1) ? 2 : 3;
-                if (deletionsLeft >= deleteCost) {
-                    runArray[i] -= deleteCost;
-                    deletionsLeft -= deleteCost;
+        // Emit the repaired PIN left to right; each new character takes the next missing class
+        // and differs from both neighbours, so it never creates or extends a run
+        int missingMask = 0;
+        for (int k = 0; k < 3; k++) {
+            if (classCounts[k] == 0) missingMask |= 1 << k;
+        }
+        for (int i = 0; i <= n; i++) {
+            if (i == insertInside) {
+                missingMask = emitNew(pin, out, PinRepair.INSERT, i, missingMask);
+            }
+            if (i == n) {
+                for (int a = 0; a < appended; a++) {
+                    missingMask = emitNew(pin, out, PinRepair.INSERT, n, missingMask);
                 }
+                break;
+            }
+            if (actions[i] == KEEP) {
+                out.emit(pin.charAt(i));
+            } else if (actions[i] == DELETE) {
+                out.op(PinRepair.DELETE, i, '\0');
+            } else {
+                missingMask = emitNew(pin, out, PinRepair.REPLACE, i, missingMask);
             }
         }
+        return out.opCount;
+    }
 
-        // Calculate remaining replacements needed after deletions
-        int replaceNeeded = 0;
-        for (int run : runArray) {
-            if (run >= 3) {
-                replaceNeeded += run / 3;
+    /**
+     * Marks n - 20 deletions: runs by mod 3 first, then three at a time from runs, then
+     * whatever is left from the longest runs, and finally from the end of the PIN, skipping
+     * the last holder of a class. Deletions inside a run take its tail, so runs never merge.
+     */
+    private static void deleteForLength(CharSequence pin, PinRepair out, int[] classCounts, int over) {
+        int left = over;
+        // One deletion saves a replacement in runs with L % 3 == 0, two in runs with L % 3 == 1
+        for (int mod = 0; mod < 2; mod++) {
+            for (int r = 0; r < out.runCount && left > mod; r++) {
+                int runLength = out.runLengths[r];
+                if (runLength >= 3 && runLength % 3 == mod) {
+                    shrinkRun(pin, out, classCounts, r, mod + 1);
+                    left -= mod + 1;
+                }
             }
         }
+        // Every further three deletions save one replacement
+        for (int r = 0; r < out.runCount && left >= 3; r++) {
+            int cut = Math.min(left / 3, out.runLengths[r] / 3) * 3;
+            shrinkRun(pin, out, classCounts, r, cut);
+            left -= cut;
+        }
+        // Leftovers: shorten runs (down to one character) before touching anything else
+        for (int r = 0; r < out.runCount && left > 0; r++) {
+            int cut = Math.min(left, out.runLengths[r] - 1);
+            shrinkRun(pin, out, classCounts, r, cut);
+            left -= cut;
+        }
+        byte[] actions = out.actions;
+        for (int i = pin.length() - 1; i >= 0 && left > 0; i--) {
+            if (actions[i] != KEEP) continue;
+            int cls = classIndex(pin.charAt(i));
+            if (cls >= 0 && classCounts[cls] < 2) continue;
+            actions[i] = DELETE;
+            if (cls >= 0) classCounts[cls]--;
+            left--;
+        }
+    }
 
-        // Total steps = deletions (over) + max(replacements, missing types)
-        return over + Math.max(replaceNeeded, missingTypes);
+    private static void shrinkRun(CharSequence pin, PinRepair out, int[] classCounts, int r, int cut) {
+        int start = out.runStarts[r];
+        for (int k = 0; k < cut; k++) {
+            out.actions[start + --out.runLengths[r]] = DELETE;
+        }
+        addClass(classCounts, pin.charAt(start), -cut);
+    }
+
+    /**
+     * Writes one inserted or replacing character at original position i and records the op.
+     * @return the missing-class mask after this character
+     */
+    private static int emitNew(CharSequence pin, PinRepair out, byte kind, int i, int missingMask) {
+        int cls = missingMask != 0 ? Integer.numberOfTrailingZeros(missingMask) : 0;
+        char left = out.length > 0 ? out.pin[out.length - 1] : '\0';
+        char right = '\0';
+        int next = kind == PinRepair.INSERT ? i : i + 1;
+        while (next < pin.length() && out.actions[next] == DELETE) {
+            next++;
+        }
+        if (next < pin.length() && out.actions[next] == KEEP) {
+            right = pin.charAt(next);
+        }
+
+        String candidates = CLASS_CANDIDATES[cls];
+        char c = candidates.charAt(0);
+        for (int k = 0; k < candidates.length(); k++) {
+            c = candidates.charAt(k);
+            if (c != left && c != right) break;
+        }
+        out.emit(c);
+        out.op(kind, i, c);
+        return missingMask & ~(1 << cls);
+    }
+
+    private static void addClass(int[] classCounts, char c, int delta) {
+        int cls = classIndex(c);
+        if (cls >= 0) classCounts[cls] += delta;
+    }
+
+    /**
+     * 0 for lowercase, 1 for uppercase, 2 for digits, -1 otherwise.
+     */
+    private static int classIndex(char c) {
+        int cls = PinPolicy.classOf(c);
+        if (cls == PinPolicy.CLASS_LOWER) return 0;
+        if (cls == PinPolicy.CLASS_UPPER) return 1;
+        if (cls == PinPolicy.CLASS_DIGIT) return 2;
+        return -1;
     }
 
     // Test Cases (Including yours)
@@ -156,6 +581,35 @@ public class SecureBankPIN {
         }
 
         System.out.println("     Passed " + passed + " / " + testcases.size() + " tests.");
+
+        // Batch audit over the same PINs packed into one byte array
+        int[] offsets = new int[testcases.size() + 1];
+        StringBuilder packed = new StringBuilder();
+        for (int i = 0; i < testcases.size(); i++) {
+            packed.append(testcases.get(i).pin);
+            offsets[i + 1] = packed.length();
+        }
+        PinAuditResult audit = auditPins(packed.toString().getBytes(StandardCharsets.ISO_8859_1), offsets);
+        boolean batchMatches = true;
+        for (int i = 0; i < testcases.size(); i++) {
+            if (audit.changes[i] != testcases.get(i).expected) batchMatches = false;
+        }
+        System.out.println("\nBatch audit changes: " + Arrays.toString(audit.changes));
+        System.out.println("Batch audit matches single-PIN results: " + (batchMatches ? " PASS" : " FAIL"));
+
+        // Concrete repairs, reusing one buffer
+        PinRepair repair = new PinRepair();
+        for (Testcase t : testcases) {
+            int edits = repairPIN(t.pin, repair);
+            StringBuilder script = new StringBuilder();
+            for (int i = 0; i < repair.opCount; i++) {
+                if (i > 0) script.append(", ");
+                script.append(repair.describe(i));
+            }
+            boolean strong = edits == t.expected && minimumChangesForStrongPIN(repair.repairedPIN()) == 0;
+            System.out.printf("Repair '%s' -> '%s' [%s] -> %s\n",
+                              t.pin, repair.repairedPIN(), script, strong ? " PASS" : " FAIL");
+        }
     }
 
     static class Testcase {
@@ -184,4 +638,10 @@ Test 3: PIN = 'Aa1234!'
 Expected: 0, Got: 0 ?  PASS
 
     Passed 3 / 3 tests.
+
+Batch audit changes: [3, 2, 0]
+Batch audit matches single-PIN results:  PASS
+Repair 'X1!' -> 'X1!aba' [insert 'a' at 3, insert 'b' at 3, insert 'a' at 3] ->  PASS
+Repair '123456' -> 'aA3456' [replace 0 with 'a', replace 1 with 'A'] ->  PASS
+Repair 'Aa1234!' -> 'Aa1234!' [] ->  PASS
  */
\ No newline at end of file
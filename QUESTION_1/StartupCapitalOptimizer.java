@@ -49,7 +49,16 @@ Explanation:
 // - List of projects with investment requirements and revenue potential
 // - Can only complete projects when sufficient capital is available
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.PriorityQueue;
+import java.util.Random;
 
 public class StartupCapitalOptimizer {
 
@@ -76,50 +85,330 @@ public class StartupCapitalOptimizer {
      * @param revenues Array of revenue values for projects
      * @param investments Array of required investments for projects
      * @return Maximum possible capital after optimal project selection
+     * @throws ArithmeticException if the result does not fit in an int (use maximizeCapitalLong)
      */
     public static int maximizeCapital(int k, int initialCapital, int[] revenues, int[] investments) {
+        return Math.toIntExact(maximizeCapitalLong(k, initialCapital, revenues, investments));
+    }
+
+    /**
+     * Same greedy as maximizeCapital, on primitive arrays and with capital tracked as a long.
+     * Projects are sorted once by investment through packed (investment, index) keys, so there
+     * is no object per project and no comparator; the revenues of unlocked projects sit in a
+     * primitive max-heap.
+     *
+     * @param k Maximum number of projects to complete
+     * @param initialCapital Starting funds
+     * @param revenues Array of revenue values for projects
+     * @param investments Array of required investments for projects
+     * @return Maximum possible capital after optimal project selection
+     */
+    public static long maximizeCapitalLong(int k, long initialCapital, int[] revenues, int[] investments) {
+        return maximizeCapitalLong(k, initialCapital, revenues, investments, null);
+    }
+
+    /**
+     * Same as maximizeCapitalLong, additionally recording every selected project and the capital
+     * after each round into trace. With a null trace nothing is recorded and nothing is allocated.
+     *
+     * @param trace Buffer to record the run into (reset first), or null
+     * @throws IllegalArgumentException if trace cannot hold min(k, n) rounds
+     */
+    public static long maximizeCapitalLong(int k, long initialCapital, int[] revenues, int[] investments,
+                                           SelectionTrace trace) {
         // Validate input parameters
         if (revenues == null || investments == null || revenues.length != investments.length) {
             throw new IllegalArgumentException("Invalid input arrays");
         }
+        int n = revenues.length;
+        if (trace != null) {
+            int maxRounds = Math.min(Math.max(k, 0), n);
+            if (trace.capacity() < maxRounds) {
+                throw new IllegalArgumentException("Trace holds " + trace.capacity() + " rounds, run may need "
+                        + maxRounds);
+            }
+            trace.reset(initialCapital);
+        }
+
+        // Projects in increasing order of investment, as parallel arrays
+        int[] sortedInvestments = new int[n];
+        long[] sortedProjects = new long[n]; // packed (revenue, original index), ready for the heap
+        sortByInvestment(revenues, investments, sortedInvestments, sortedProjects);
+
+        LongMaxHeap profitable = new LongMaxHeap(n);
+        long currentFunds = initialCapital;
+        int next = 0; // first project not unlocked yet
+
+        // Strategic investment rounds
+        for (int round = 0; round < k; round++) {
+            // Unlock newly affordable projects
+            while (next < n && sortedInvestments[next] <= currentFunds) {
+                profitable.push(sortedProjects[next++]);
+            }
+
+            // Exit if no investments can be made
+            if (profitable.isEmpty()) {
+                break;
+            }
+
+            // Select and complete the most profitable project
+            long selected = profitable.pop();
+            currentFunds += revenueOf(selected);
+            if (trace != null) {
+                trace.record(indexOf(selected), currentFunds);
+            }
+        }
+
+        return currentFunds;
+    }
+
+    /**
+     * Fills sortedInvestments and sortedProjects with the projects ordered by investment.
+     * Each (investment, index) pair is packed into one long so a primitive sort orders them.
+     */
+    static void sortByInvestment(int[] revenues, int[] investments, int[] sortedInvestments, long[] sortedProjects) {
+        int n = investments.length;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = (long) investments[i] << 32 | i;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < n; i++) {
+            int index = (int) keys[i];
+            sortedInvestments[i] = (int) (keys[i] >> 32);
+            sortedProjects[i] = project(revenues[index], index);
+        }
+    }
+
+    /**
+     * Packs a project as (revenue << 32 | index); comparing packed values compares revenues first.
+     */
+    static long project(int revenue, int index) {
+        return (long) revenue << 32 | index;
+    }
+
+    static int revenueOf(long project) {
+        return (int) (project >> 32);
+    }
+
+    static int indexOf(long project) {
+        return (int) project;
+    }
+
+    /**
+     * Binary max-heap of packed longs stored in one array.
+     */
+    static final class LongMaxHeap {
+        private long[] heap;
+        private int size;
+
+        LongMaxHeap(int capacity) {
+            heap = new long[Math.max(1, capacity)];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long peek() {
+            return heap[0];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void push(long value) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] >= value) break;
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
 
+        long pop() {
+            long top = heap[0];
+            long last = heap[--size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && heap[child + 1] > heap[child]) child++;
+                if (last >= heap[child]) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return top;
+        }
+    }
+
+    /**
+     * Preallocated record of one run: the original index of the project chosen in each round and
+     * the capital after it. A trace can be reused across runs.
+     *
+     * Binary format (big-endian): long initial capital, int rounds, then per round
+     * int project index and long capital.
+     */
+    public static final class SelectionTrace {
+        // Round count readBinary accepts by default (12 bytes each in memory, about 200 MB)
+        static final int MAX_READ_ROUNDS = 1 << 24;
+
+        final int[] projects;
+        final long[] capital;
+        long initialCapital;
+        int rounds;
+
+        /**
+         * @param capacity Maximum number of rounds the trace can hold
+         */
+        public SelectionTrace(int capacity) {
+            this.projects = new int[capacity];
+            this.capital = new long[capacity];
+        }
+
+        public int capacity() {
+            return projects.length;
+        }
+
+        public int rounds() {
+            return rounds;
+        }
+
+        public long initialCapital() {
+            return initialCapital;
+        }
+
+        /**
+         * Original index of the project completed in the given round (0-based).
+         */
+        public int project(int round) {
+            checkRound(round);
+            return projects[round];
+        }
+
+        /**
+         * Capital after the given round (0-based).
+         */
+        public long capitalAfter(int round) {
+            checkRound(round);
+            return capital[round];
+        }
+
+        void reset(long initialCapital) {
+            this.initialCapital = initialCapital;
+            this.rounds = 0;
+        }
+
+        void record(int project, long capitalAfter) {
+            projects[rounds] = project;
+            capital[rounds++] = capitalAfter;
+        }
+
+        private void checkRound(int round) {
+            if (round < 0 || round >= rounds) {
+                throw new IndexOutOfBoundsException("Round " + round + " out of range for " + rounds + " rounds");
+            }
+        }
+
+        /**
+         * Writes the trace in the binary format described above.
+         */
+        public void writeBinary(DataOutput out) throws IOException {
+            out.writeLong(initialCapital);
+            out.writeInt(rounds);
+            for (int r = 0; r < rounds; r++) {
+                out.writeInt(projects[r]);
+                out.writeLong(capital[r]);
+            }
+        }
+
+        /**
+         * Reads a trace written by writeBinary into a trace of exactly the recorded size.
+         * @throws IOException if the stream claims more than MAX_READ_ROUNDS rounds
+         */
+        public static SelectionTrace readBinary(DataInput in) throws IOException {
+            return readBinary(in, MAX_READ_ROUNDS);
+        }
+
+        /**
+         * Same as readBinary(DataInput), accepting at most maxRounds rounds. The count comes
+         * from the stream, so it is checked before the arrays are sized from it.
+         * @throws IOException if the round count is negative or above maxRounds
+         */
+        public static SelectionTrace readBinary(DataInput in, int maxRounds) throws IOException {
+            long initialCapital = in.readLong();
+            int rounds = in.readInt();
+            if (rounds < 0 || rounds > maxRounds) {
+                throw new IOException("Round count " + rounds + " outside [0, " + maxRounds + "]");
+            }
+            SelectionTrace trace = new SelectionTrace(rounds);
+            trace.reset(initialCapital);
+            for (int r = 0; r < rounds; r++) {
+                int project = in.readInt();
+                trace.record(project, in.readLong());
+            }
+            return trace;
+        }
+
+        /**
+         * Writes one CSV line per round, round 0 being the starting capital:
+         * round,project,capital (project is empty for round 0).
+         */
+        public void writeCsv(Appendable out) throws IOException {
+            out.append("round,project,capital\n");
+            out.append("0,,").append(Long.toString(initialCapital)).append('\n');
+            for (int r = 0; r < rounds; r++) {
+                out.append(Integer.toString(r + 1)).append(',')
+                   .append(Integer.toString(projects[r])).append(',')
+                   .append(Long.toString(capital[r])).append('\n');
+            }
+        }
+    }
+
+    /**
+     * The original object-based version with two PriorityQueues, kept as a reference
+     * for cross-checking the primitive implementation.
+     */
+    static long maximizeCapitalWithQueues(int k, long initialCapital, int[] revenues, int[] investments) {
         // Min-heap to sort projects by investment cost (cheapest first)
         PriorityQueue<InvestmentOpportunity> affordableQueue = new PriorityQueue<>(
-            (a, b) -> a.investment - b.investment);
+            (a, b) -> Integer.compare(a.investment, b.investment));
 
         // Max-heap to sort projects by revenue potential (highest first)
         PriorityQueue<InvestmentOpportunity> profitableQueue = new PriorityQueue<>(
-            (a, b) -> b.revenue - a.revenue);
+            (a, b) -> Integer.compare(b.revenue, a.revenue));
 
-        // Initialize with all potential projects
         for (int i = 0; i < revenues.length; i++) {
             affordableQueue.add(new InvestmentOpportunity(investments[i], revenues[i]));
         }
 
-        int currentFunds = initialCapital;
-
-        // Strategic investment rounds
+        long currentFunds = initialCapital;
         for (int round = 0; round < k; round++) {
-            // Unlock newly affordable projects
             while (!affordableQueue.isEmpty() && 
                    affordableQueue.peek().investment <= currentFunds) {
                 profitableQueue.add(affordableQueue.poll());
             }
-
-            // Exit if no investments can be made
             if (profitableQueue.isEmpty()) {
                 break;
             }
-
-            // Select and complete the most profitable project
             currentFunds += profitableQueue.poll().revenue;
         }
-
         return currentFunds;
     }
 
     // ============ TESTING  ============
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         testCase(
             "Basic Scenario", 
             2, 0, 
@@ -147,6 +436,64 @@ public class StartupCapitalOptimizer {
             new int[]{50}, new int[]{20}, 
             100
         );
+
+        // Capital that no longer fits in an int
+        System.out.println("\nLarge Capital (long)");
+        long large = maximizeCapitalLong(3, Integer.MAX_VALUE, new int[]{Integer.MAX_VALUE, Integer.MAX_VALUE},
+                new int[]{0, Integer.MAX_VALUE});
+        System.out.println("Result: " + large);
+        System.out.println("Status: " + (large == 3L * Integer.MAX_VALUE ? "PASSED" : "FAILED"));
+
+        // Randomized cross-check against the PriorityQueue version
+        System.out.println("\nRandomized cross-check");
+        Random random = new Random(7);
+        boolean matches = true;
+        for (int t = 0; t < 2000 && matches; t++) {
+            int n = random.nextInt(40);
+            int[] revenues = new int[n];
+            int[] investments = new int[n];
+            for (int i = 0; i < n; i++) {
+                revenues[i] = random.nextInt(100);
+                investments[i] = random.nextInt(200);
+            }
+            int k = random.nextInt(n + 2);
+            long initialCapital = random.nextInt(50);
+            matches = maximizeCapitalLong(k, initialCapital, revenues, investments)
+                    == maximizeCapitalWithQueues(k, initialCapital, revenues, investments);
+        }
+        System.out.println("Status: " + (matches ? "PASSED" : "FAILED"));
+
+        // Selection trace of Example 2, exported as CSV and round-tripped through the binary form
+        System.out.println("\nSelection Trace");
+        SelectionTrace trace = new SelectionTrace(3);
+        maximizeCapitalLong(3, 1, new int[]{3, 6, 10}, new int[]{1, 3, 5}, trace);
+        StringBuilder csv = new StringBuilder();
+        trace.writeCsv(csv);
+        System.out.print(csv);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        trace.writeBinary(new DataOutputStream(bytes));
+        SelectionTrace copy = SelectionTrace.readBinary(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        StringBuilder copyCsv = new StringBuilder();
+        copy.writeCsv(copyCsv);
+        System.out.println("Binary size: " + bytes.size() + " bytes");
+        System.out.println("Status: " + (csv.toString().equals(copyCsv.toString()) && trace.capitalAfter(2) == 20
+                ? "PASSED" : "FAILED"));
+
+        // A corrupt round count is rejected before anything is allocated from it
+        boolean rejected = true;
+        for (int corrupt : new int[]{-1, Integer.MAX_VALUE}) {
+            ByteArrayOutputStream bad = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bad);
+            out.writeLong(1);
+            out.writeInt(corrupt);
+            try {
+                SelectionTrace.readBinary(new DataInputStream(new ByteArrayInputStream(bad.toByteArray())));
+                rejected = false;
+            } catch (IOException e) {
+                // expected
+            }
+        }
+        System.out.println("Corrupt trace input rejected: " + (rejected ? "PASSED" : "FAILED"));
     }
 
     /**
@@ -191,4 +538,20 @@ k: 0, Initial capital: 100
 Result: 100
 Status: PASSED
 
+Large Capital (long)
+Result: 6442450941
+Status: PASSED
+
+Randomized cross-check
+Status: PASSED
+
+Selection Trace
+round,project,capital
+0,,1
+1,0,4
+2,1,10
+3,2,20
+Binary size: 48 bytes
+Status: PASSED
+
 */
\ No newline at end of file
@@ -0,0 +1,458 @@
+// Cryptarithm Batch Service
+// =========================
+// Checks many candidate puzzles at once, as a puzzle generator does. Candidates are often the
+// same puzzle with the letters renamed (SEND + MORE = MONEY and WXYZ + UVTX = UVYXQ have the
+// same solutions up to renaming), so every equation is first brought to a canonical form: letters are
+// renamed A, B, C, ... in order of first appearance. Results are cached by canonical form in a
+// bounded LRU cache, and the distinct puzzles of a batch that miss the cache are solved in
+// parallel. The service keeps the cache hit rate and percentiles of recent solve times.
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public final class CryptarithmBatchService {
+
+    // Solve times kept for the percentiles (the most recent ones)
+    static final int SAMPLE_CAPACITY = 1 << 16;
+
+    private final ForkJoinPool pool;
+
+    // canonical key -> outcome, least recently used first; guarded by itself
+    private final LinkedHashMap<String, Outcome> cache;
+
+    // Statistics, guarded by this
+    private long lookups;
+    private long hits;
+    private long solves;
+    private final long[] solveNanos = new long[SAMPLE_CAPACITY];
+
+    /**
+     * @param cacheCapacity most canonical puzzles kept in the cache (0 disables caching)
+     * @param pool          pool the misses of a batch are solved on
+     */
+    public CryptarithmBatchService(int cacheCapacity, ForkJoinPool pool) {
+        if (cacheCapacity < 0) {
+            throw new IllegalArgumentException("Negative cache capacity " + cacheCapacity);
+        }
+        this.pool = pool;
+        this.cache = new LinkedHashMap<String, Outcome>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Outcome> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    public CryptarithmBatchService(int cacheCapacity) {
+        this(cacheCapacity, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Result for one equation of a batch.
+     */
+    public static final class Result {
+        final String equation;
+        final Map<Character, Integer> solution;
+        final boolean unique;
+        final boolean cached;
+        final long solveNanos;
+
+        Result(String equation, Map<Character, Integer> solution, boolean unique, boolean cached, long solveNanos) {
+            this.equation = equation;
+            this.solution = solution;
+            this.unique = unique;
+            this.cached = cached;
+            this.solveNanos = solveNanos;
+        }
+
+        public String equation() {
+            return equation;
+        }
+
+        /** A solution in the equation's own letters, or null if there is none. */
+        public Map<Character, Integer> solution() {
+            return solution;
+        }
+
+        public boolean solvable() {
+            return solution != null;
+        }
+
+        /** True if the equation has exactly one solution. */
+        public boolean unique() {
+            return unique;
+        }
+
+        /** True if the result came from the cache or from an equal puzzle earlier in the batch. */
+        public boolean cached() {
+            return cached;
+        }
+
+        /** Time spent solving the canonical puzzle, when it was solved (not only for this result). */
+        public long solveNanos() {
+            return solveNanos;
+        }
+    }
+
+    /**
+     * Snapshot of the service statistics.
+     */
+    public static final class Stats {
+        final long lookups;
+        final long hits;
+        final long solves;
+        final long[] sortedNanos;
+
+        Stats(long lookups, long hits, long solves, long[] sortedNanos) {
+            this.lookups = lookups;
+            this.hits = hits;
+            this.solves = solves;
+            this.sortedNanos = sortedNanos;
+        }
+
+        public long lookups() {
+            return lookups;
+        }
+
+        public long hits() {
+            return hits;
+        }
+
+        /** Number of puzzles actually solved. */
+        public long solves() {
+            return solves;
+        }
+
+        public double hitRate() {
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        /**
+         * Solve time at percentile p (0 to 100) over the last SAMPLE_CAPACITY solves, nearest rank.
+         * @return nanoseconds, or 0 before the first solve
+         */
+        public long percentileNanos(double p) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p / 100 * sortedNanos.length);
+            return sortedNanos[Math.min(Math.max(rank, 1), sortedNanos.length) - 1];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("lookups=%d hits=%d (%.1f%%) solves=%d p50=%.3fms p90=%.3fms p99=%.3fms",
+                    lookups, hits, 100 * hitRate(), solves, percentileNanos(50) / 1e6,
+                    percentileNanos(90) / 1e6, percentileNanos(99) / 1e6);
+        }
+    }
+
+    /**
+     * Solves every equation (syntax of CryptarithmeticSolver.parse) in base 10.
+     * @throws IllegalArgumentException if an equation cannot be parsed
+     */
+    public List<Result> solveAll(List<String> equations) {
+        return solveAll(equations, 10);
+    }
+
+    /**
+     * Solves every equation in the given base. Results come back in input order.
+     * @throws IllegalArgumentException if an equation cannot be parsed
+     */
+    public List<Result> solveAll(List<String> equations, int base) {
+        int n = equations.size();
+        Canonical[] canonicals = new Canonical[n];
+        Outcome[] outcomes = new Outcome[n];
+        boolean[] cached = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            canonicals[i] = canonicalize(equations.get(i), base);
+        }
+
+        // Cache lookups; misses are deduplicated so each distinct puzzle is solved once
+        Map<String, Outcome> pending = new LinkedHashMap<>();
+        int batchHits = 0;
+        synchronized (cache) {
+            for (int i = 0; i < n; i++) {
+                String key = canonicals[i].key;
+                outcomes[i] = cache.get(key);
+                if (outcomes[i] != null) {
+                    cached[i] = true;
+                } else if (pending.containsKey(key)) {
+                    cached[i] = true;
+                } else {
+                    pending.put(key, null);
+                }
+                if (cached[i]) {
+                    batchHits++;
+                }
+            }
+        }
+
+        // Solve the distinct misses in parallel
+        String[] keys = pending.keySet().toArray(new String[0]);
+        Outcome[] solved = new Outcome[keys.length];
+        if (keys.length > 0) {
+            pool.invoke(new SolveTask(keys, base, solved, 0, keys.length));
+        }
+        synchronized (cache) {
+            for (int k = 0; k < keys.length; k++) {
+                pending.put(keys[k], solved[k]);
+                cache.put(keys[k], solved[k]);
+            }
+        }
+        synchronized (this) {
+            lookups += n;
+            hits += batchHits;
+            for (Outcome outcome : solved) {
+                solveNanos[(int) (solves++ % SAMPLE_CAPACITY)] = outcome.nanos;
+            }
+        }
+
+        List<Result> results = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Outcome outcome = outcomes[i] != null ? outcomes[i] : pending.get(canonicals[i].key);
+            results.add(new Result(equations.get(i), canonicals[i].toOriginal(outcome.digits),
+                    outcome.solutions == 1, cached[i], outcome.nanos));
+        }
+        return results;
+    }
+
+    /**
+     * Current statistics.
+     */
+    public synchronized Stats stats() {
+        int samples = (int) Math.min(solves, SAMPLE_CAPACITY);
+        long[] sorted = Arrays.copyOf(solveNanos, samples);
+        Arrays.sort(sorted);
+        return new Stats(lookups, hits, solves, sorted);
+    }
+
+    /**
+     * Number of canonical puzzles in the cache.
+     */
+    public int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Solution found for a canonical puzzle: digits[i] is the digit of the i-th letter of the
+     * canonical alphabet (null if unsolvable), and solutions is the solution count capped at 2.
+     */
+    static final class Outcome {
+        final int[] digits;
+        final int solutions;
+        final long nanos;
+
+        Outcome(int[] digits, int solutions, long nanos) {
+            this.digits = digits;
+            this.solutions = solutions;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * An equation with its letters renamed in first-appearance order. key identifies the puzzle
+     * up to renaming; originals[i] is the letter that became labels[i].
+     */
+    static final class Canonical {
+        final String key;
+        final String equation;
+        final char[] originals;
+        final char[] labels;
+
+        Canonical(String key, String equation, char[] originals, char[] labels) {
+            this.key = key;
+            this.equation = equation;
+            this.originals = originals;
+            this.labels = labels;
+        }
+
+        Map<Character, Integer> toOriginal(int[] digits) {
+            if (digits == null) {
+                return null;
+            }
+            Map<Character, Integer> assignment = new HashMap<>();
+            for (int i = 0; i < originals.length; i++) {
+                assignment.put(originals[i], digits[i]);
+            }
+            return assignment;
+        }
+    }
+
+    /**
+     * Parses equation and renames its letters A, B, C, ... in order of first appearance. The
+     * key is the fully parenthesized renamed equation plus the base, so spacing, letter case and
+     * redundant parentheses do not matter.
+     * @throws IllegalArgumentException if the equation cannot be parsed
+     */
+    static Canonical canonicalize(String equation, int base) {
+        String normalized = CryptarithmCompiler.parse(equation).toString();
+        StringBuilder distinct = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetter(c) && distinct.indexOf(String.valueOf(c)) < 0) {
+                distinct.append(c);
+            }
+        }
+        char[] originals = distinct.toString().toCharArray();
+        // Beyond 26 letters (only possible with non-Latin letters) keep the puzzle as written
+        char[] labels = originals.clone();
+        if (originals.length <= 26) {
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = (char) ('A' + i);
+            }
+        }
+        char[] renamed = normalized.toCharArray();
+        for (int i = 0; i < renamed.length; i++) {
+            if (Character.isLetter(renamed[i])) {
+                renamed[i] = labels[distinct.indexOf(String.valueOf(renamed[i]))];
+            }
+        }
+        String canonical = new String(renamed);
+        return new Canonical(canonical + " base " + base, canonical, originals, labels);
+    }
+
+    /**
+     * Solves keys[from..to), splitting down to one puzzle per task: puzzles differ a lot in
+     * cost, and single ones are easy for idle workers to steal.
+     */
+    static class SolveTask extends RecursiveAction {
+        private final String[] keys;
+        private final int base;
+        private final Outcome[] solved;
+        private final int from;
+        private final int to;
+
+        SolveTask(String[] keys, int base, Outcome[] solved, int from, int to) {
+            this.keys = keys;
+            this.base = base;
+            this.solved = solved;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SolveTask(keys, base, solved, from, mid),
+                          new SolveTask(keys, base, solved, mid, to));
+                return;
+            }
+            solved[from] = solve(keys[from].substring(0, keys[from].lastIndexOf(" base ")), base);
+        }
+    }
+
+    /**
+     * Solves a canonical equation, stopping at the second solution.
+     */
+    static Outcome solve(String canonicalEquation, int base) {
+        long start = System.nanoTime();
+        Canonical canonical = canonicalize(canonicalEquation, base);
+        int[] first = new int[canonical.labels.length];
+        boolean[] found = {false};
+        long solutions = CryptarithmeticSolver.parse(canonicalEquation, base).enumerate((letters, digits) -> {
+            if (!found[0]) {
+                for (int i = 0; i < letters.length; i++) {
+                    first[new String(canonical.labels).indexOf(letters[i])] = digits[i];
+                }
+                found[0] = true;
+            }
+            return true;
+        }, 2);
+        return new Outcome(found[0] ? first : null, (int) solutions, System.nanoTime() - start);
+    }
+
+    // ============ TESTING ============
+    public static void main(String[] args) {
+        CryptarithmBatchService service = new CryptarithmBatchService(1000);
+
+        // Renamed copies of the same puzzles, with different spacing and case
+        List<String> batch = Arrays.asList(
+                "SEND + MORE = MONEY",
+                "TWO + TWO = FOUR",
+                "send+more=money",
+                "WXYZ + UVTX = UVYXQ",
+                "ONE + ONE = TWO",
+                "CODE + BUG = DEBUG",
+                "(TWO) + TWO = FOUR");
+        for (Result result : service.solveAll(batch)) {
+            System.out.printf("%-22s solvable=%-5s unique=%-5s cached=%-5s %s%n", result.equation(),
+                    result.solvable(), result.unique(), result.cached(),
+                    result.solvable() ? new TreeMap<>(result.solution()) : "");
+        }
+        System.out.println("Canonical form: " + canonicalize("send+more=money", 10).equation);
+        Stats first = service.stats();
+        System.out.println("Stats: lookups=" + first.lookups() + " hits=" + first.hits() + " solves=" + first.solves());
+
+        // Random renamings of a few puzzles against the solver on the original equation
+        Random random = new Random(17);
+        String[] seeds = {"SEND + MORE = MONEY", "TWO + TWO = FOUR", "CROSS + ROADS = DANGER",
+                          "AB * C = DEB", "SIXTY - TEN - TEN = FORTY", "CODE + BUG = DEBUG"};
+        List<String> generated = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            generated.add(rename(seeds[random.nextInt(seeds.length)], random));
+        }
+        boolean passed = true;
+        List<Result> results = service.solveAll(generated);
+        for (Result result : results) {
+            CryptarithmeticSolver solver = CryptarithmeticSolver.parse(result.equation());
+            boolean solvable = solver.solve() != null;
+            if (solvable != result.solvable() || result.unique() != solver.hasUniqueSolution()
+                    || (solvable && !solver.satisfies(result.solution()))) {
+                System.out.println("Mismatch on " + result.equation());
+                passed = false;
+            }
+        }
+        System.out.println("Renamed puzzles: " + (passed ? "PASSED" : "FAILED"));
+
+        // A tiny cache evicts least recently used puzzles
+        CryptarithmBatchService small = new CryptarithmBatchService(2);
+        small.solveAll(Arrays.asList("A + B = C", "A + A = B", "AB + C = DE"));
+        boolean hit = small.solveAll(Collections.singletonList("X + Y = Z")).get(0).cached();
+        System.out.println("LRU: size " + small.cacheSize() + ", oldest evicted: " + !hit);
+
+        Stats stats = service.stats();
+        System.out.printf("Stats: lookups=%d hits=%d hit rate=%.1f%% solves=%d, p50 <= p90 <= p99: %s%n",
+                stats.lookups(), stats.hits(), 100 * stats.hitRate(), stats.solves(),
+                stats.percentileNanos(50) <= stats.percentileNanos(90)
+                        && stats.percentileNanos(90) <= stats.percentileNanos(99));
+        System.out.println(stats);
+    }
+
+    /**
+     * equation with its letters mapped through a random permutation of the alphabet.
+     */
+    private static String rename(String equation, Random random) {
+        List<Character> alphabet = new ArrayList<>();
+        for (char c = 'A'; c <= 'Z'; c++) {
+            alphabet.add(c);
+        }
+        Collections.shuffle(alphabet, random);
+        StringBuilder renamed = new StringBuilder();
+        for (char c : equation.toCharArray()) {
+            renamed.append(Character.isLetter(c) ? alphabet.get(c - 'A') : c);
+        }
+        return renamed.toString();
+    }
+}
+
+/*
+ * -----OUTPUT------
+SEND + MORE = MONEY    solvable=true  unique=true  cached=false {D=7, E=5, M=1, N=6, O=0, R=8, S=9, Y=2}
+TWO + TWO = FOUR       solvable=true  unique=false cached=false {F=1, O=4, R=8, T=7, U=6, W=3}
+send+more=money        solvable=true  unique=true  cached=true  {D=7, E=5, M=1, N=6, O=0, R=8, S=9, Y=2}
+WXYZ + UVTX = UVYXQ    solvable=true  unique=true  cached=true  {Q=2, T=8, U=1, V=0, W=9, X=5, Y=6, Z=7}
+ONE + ONE = TWO        solvable=true  unique=false cached=false {E=1, N=3, O=2, T=4, W=6}
+CODE + BUG = DEBUG     solvable=false unique=false cached=false 
+(TWO) + TWO = FOUR     solvable=true  unique=false cached=true  {F=1, O=4, R=8, T=7, U=6, W=3}
+Canonical form: (ABCD + EFGB) = EFCBH
+Stats: lookups=7 hits=3 solves=4
+Renamed puzzles: PASSED
+LRU: size 2, oldest evicted: true
+Stats: lookups=2007 hits=2000 hit rate=99.7% solves=7, p50 <= p90 <= p99: true
+lookups=2007 hits=2000 (99.7%) solves=7 p50=0.285ms p90=15.063ms p99=15.063ms
+ */
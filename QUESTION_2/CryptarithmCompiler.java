@@ -0,0 +1,480 @@
+// General cryptarithm equations
+// =============================
+// CryptarithmeticSolver started with word1 + word2 = word3 only. This compiler accepts any
+// number of words combined with +, - and *, either as text ("SEND + MORE + MONEY = TOTAL",
+// "AB * (C + D) = EFG") or as a small expression tree, in any base from 2 to 36.
+//
+// Compilation turns the equation into the column constraints that ColumnSearch works on.
+// Every word is sum(digit(word[p]) * base^p), so expanding left - right gives terms
+//     coefficient * digit(x) * digit(y) * ...   with place value base^(sum of the positions).
+// Sums and differences only give linear terms. Products give terms with more than one letter.
+// Grouping the terms by their exponent gives one constraint per column. A product term's letters
+// sit at positions no higher than the term's column, so the search still checks each column as
+// soon as its own letters are assigned.
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class CryptarithmCompiler {
+
+    static final int MIN_BASE = 2;
+    static final int MAX_BASE = 36;
+
+    private CryptarithmCompiler() {
+    }
+
+    // ---------------------------------------------------------------- expression tree
+
+    /**
+     * One side of an equation, or a part of one.
+     */
+    public abstract static class Expr {
+        private Expr() {
+        }
+    }
+
+    /**
+     * A word whose letters stand for digits; the first letter may not be zero. The empty word
+     * stands for 0.
+     */
+    public static final class Word extends Expr {
+        final String text;
+
+        Word(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * left operator right, with operator one of '+', '-' and '*'.
+     */
+    public static final class Operation extends Expr {
+        final char operator;
+        final Expr left;
+        final Expr right;
+
+        Operation(char operator, Expr left, Expr right) {
+            if (operator != '+' && operator != '-' && operator != '*') {
+                throw new IllegalArgumentException("Unsupported operator " + operator);
+            }
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " " + operator + " " + right + ")";
+        }
+    }
+
+    public static Expr word(String text) {
+        return new Word(text);
+    }
+
+    public static Expr plus(Expr left, Expr right) {
+        return new Operation('+', left, right);
+    }
+
+    public static Expr minus(Expr left, Expr right) {
+        return new Operation('-', left, right);
+    }
+
+    public static Expr times(Expr left, Expr right) {
+        return new Operation('*', left, right);
+    }
+
+    /**
+     * Sum of several words, e.g. sum("SEND", "MORE").
+     */
+    public static Expr sum(String... words) {
+        Expr total = word(words[0]);
+        for (int i = 1; i < words.length; i++) {
+            total = plus(total, word(words[i]));
+        }
+        return total;
+    }
+
+    /**
+     * left = right.
+     */
+    public static final class Equation {
+        final Expr left;
+        final Expr right;
+
+        public Equation(Expr left, Expr right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public String toString() {
+            return left + " = " + right;
+        }
+    }
+
+    // ---------------------------------------------------------------- parsing
+
+    /**
+     * Parses "expression = expression" where an expression combines words with +, - and *
+     * (usual precedence) and parentheses. Words are made of letters and are upper-cased.
+     *
+     * @throws IllegalArgumentException on a syntax error
+     */
+    public static Equation parse(String equation) {
+        Parser parser = new Parser(equation);
+        Expr left = parser.expression();
+        parser.expect('=');
+        Expr right = parser.expression();
+        parser.skipSpaces();
+        if (parser.pos < equation.length()) {
+            throw parser.error();
+        }
+        return new Equation(left, right);
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        // expression := term (('+' | '-') term)*
+        Expr expression() {
+            Expr result = term();
+            while (true) {
+                skipSpaces();
+                if (pos < text.length() && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) {
+                    char operator = text.charAt(pos++);
+                    result = new Operation(operator, result, term());
+                } else {
+                    return result;
+                }
+            }
+        }
+
+        // term := factor ('*' factor)*
+        Expr term() {
+            Expr result = factor();
+            while (true) {
+                skipSpaces();
+                if (pos < text.length() && text.charAt(pos) == '*') {
+                    pos++;
+                    result = times(result, factor());
+                } else {
+                    return result;
+                }
+            }
+        }
+
+        // factor := word | '(' expression ')'
+        Expr factor() {
+            skipSpaces();
+            if (pos < text.length() && text.charAt(pos) == '(') {
+                pos++;
+                Expr inner = expression();
+                expect(')');
+                return inner;
+            }
+            int start = pos;
+            while (pos < text.length() && Character.isLetter(text.charAt(pos))) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error();
+            }
+            return word(text.substring(start, pos).toUpperCase());
+        }
+
+        void expect(char c) {
+            skipSpaces();
+            if (pos >= text.length() || text.charAt(pos) != c) {
+                throw error();
+            }
+            pos++;
+        }
+
+        void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        IllegalArgumentException error() {
+            String found = pos < text.length() ? "'" + text.charAt(pos) + "'" : "end of input";
+            return new IllegalArgumentException("Unexpected " + found + " at position " + pos + " in \"" + text + "\"");
+        }
+    }
+
+    // ---------------------------------------------------------------- compilation
+
+    /**
+     * coefficient * product(digit(factors)) at place value base^column; factors are sorted
+     * dense letter indices, repeated for powers.
+     */
+    private static final class Term {
+        final int column;
+        final int[] factors;
+
+        Term(int column, int[] factors) {
+            this.column = column;
+            this.factors = factors;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Term && ((Term) o).column == column && Arrays.equals(((Term) o).factors, factors);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * column + Arrays.hashCode(factors);
+        }
+    }
+
+    /**
+     * Compiles left = right in the given base.
+     *
+     * @return the column constraints, or null if there are more distinct letters than digits
+     * @throws IllegalArgumentException for an unsupported base or coefficients beyond long
+     */
+    static CryptarithmeticSolver.ColumnPuzzle compile(Expr left, Expr right, int base) {
+        if (base < MIN_BASE || base > MAX_BASE) {
+            throw new IllegalArgumentException("Base must be in [" + MIN_BASE + ", " + MAX_BASE + "]: " + base);
+        }
+        List<String> words = new ArrayList<>();
+        collectWords(left, words);
+        collectWords(right, words);
+
+        // Dense letter indices in order of first column, then word order
+        int columns = 0;
+        for (String word : words) {
+            columns = Math.max(columns, word.length());
+        }
+        char[] letters = new char[base];
+        int letterCount = 0;
+        int[][] newLetters = new int[columns][];
+        int[] fresh = new int[base];
+        for (int c = 0; c < columns; c++) {
+            int freshCount = 0;
+            for (String word : words) {
+                if (c >= word.length()) continue;
+                char ch = word.charAt(word.length() - 1 - c);
+                if (indexOf(letters, letterCount, ch) < 0) {
+                    if (letterCount == base) {
+                        return null;
+                    }
+                    fresh[freshCount++] = letterCount;
+                    letters[letterCount++] = ch;
+                }
+            }
+            newLetters[c] = Arrays.copyOf(fresh, freshCount);
+        }
+        letters = Arrays.copyOf(letters, letterCount);
+
+        boolean[] nonZero = new boolean[letterCount];
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                nonZero[indexOf(letters, letterCount, word.charAt(0))] = true;
+            }
+        }
+
+        // left - right = 0, expanded into terms
+        Map<Term, Long> terms = expand(left, letters, base);
+        add(terms, expand(right, letters, base), -1);
+        for (Term term : terms.keySet()) {
+            columns = Math.max(columns, term.column + 1);
+        }
+        if (newLetters.length < columns) {
+            int known = newLetters.length;
+            newLetters = Arrays.copyOf(newLetters, columns);
+            Arrays.fill(newLetters, known, columns, new int[0]);
+        }
+
+        // Group by column: linear terms as a coefficient per letter, products as a list
+        long[][] coefficients = new long[columns][letterCount];
+        List<List<Term>> products = new ArrayList<>();
+        for (int c = 0; c < columns; c++) {
+            products.add(new ArrayList<>());
+        }
+        for (Map.Entry<Term, Long> entry : terms.entrySet()) {
+            Term term = entry.getKey();
+            if (entry.getValue() == 0) continue;
+            if (term.factors.length == 1) {
+                coefficients[term.column][term.factors[0]] = entry.getValue();
+            } else {
+                products.get(term.column).add(term);
+            }
+        }
+        int[][][] productFactors = new int[columns][][];
+        long[][] productCoefficients = new long[columns][];
+        for (int c = 0; c < columns; c++) {
+            List<Term> column = products.get(c);
+            productFactors[c] = new int[column.size()][];
+            productCoefficients[c] = new long[column.size()];
+            for (int t = 0; t < column.size(); t++) {
+                productFactors[c][t] = column.get(t).factors;
+                productCoefficients[c][t] = terms.get(column.get(t));
+            }
+        }
+        return new CryptarithmeticSolver.ColumnPuzzle(base, letters, nonZero, newLetters,
+                coefficients, productFactors, productCoefficients);
+    }
+
+    private static void collectWords(Expr expr, List<String> words) {
+        if (expr instanceof Word) {
+            words.add(((Word) expr).text);
+        } else {
+            Operation operation = (Operation) expr;
+            collectWords(operation.left, words);
+            collectWords(operation.right, words);
+        }
+    }
+
+    private static Map<Term, Long> expand(Expr expr, char[] letters, int base) {
+        Map<Term, Long> terms = new LinkedHashMap<>();
+        if (expr instanceof Word) {
+            String text = ((Word) expr).text;
+            for (int p = 0; p < text.length(); p++) {
+                int letter = indexOf(letters, letters.length, text.charAt(text.length() - 1 - p));
+                terms.merge(new Term(p, new int[]{letter}), 1L, CryptarithmCompiler::addCoefficients);
+            }
+            return terms;
+        }
+        Operation operation = (Operation) expr;
+        Map<Term, Long> left = expand(operation.left, letters, base);
+        Map<Term, Long> right = expand(operation.right, letters, base);
+        switch (operation.operator) {
+            case '+':
+                add(left, right, 1);
+                return left;
+            case '-':
+                add(left, right, -1);
+                return left;
+            default:
+                for (Map.Entry<Term, Long> a : left.entrySet()) {
+                    for (Map.Entry<Term, Long> b : right.entrySet()) {
+                        int[] factors = new int[a.getKey().factors.length + b.getKey().factors.length];
+                        System.arraycopy(a.getKey().factors, 0, factors, 0, a.getKey().factors.length);
+                        System.arraycopy(b.getKey().factors, 0, factors, a.getKey().factors.length, b.getKey().factors.length);
+                        Arrays.sort(factors);
+                        terms.merge(new Term(a.getKey().column + b.getKey().column, factors),
+                                multiplyCoefficients(a.getValue(), b.getValue()), CryptarithmCompiler::addCoefficients);
+                    }
+                }
+                return terms;
+        }
+    }
+
+    private static void add(Map<Term, Long> into, Map<Term, Long> terms, int sign) {
+        for (Map.Entry<Term, Long> entry : terms.entrySet()) {
+            into.merge(entry.getKey(), multiplyCoefficients(sign, entry.getValue()), CryptarithmCompiler::addCoefficients);
+        }
+    }
+
+    private static Long addCoefficients(Long a, Long b) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Equation coefficients exceed the long range", e);
+        }
+    }
+
+    private static long multiplyCoefficients(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Equation coefficients exceed the long range", e);
+        }
+    }
+
+    private static int indexOf(char[] letters, int count, char ch) {
+        for (int j = 0; j < count; j++) {
+            if (letters[j] == ch) return j;
+        }
+        return -1;
+    }
+
+    // ---------------------------------------------------------------- evaluation
+
+    /**
+     * Value of expr under an assignment. Uses long arithmetic and switches to BigInteger only
+     * when a word or an intermediate result leaves the long range.
+     */
+    static BigInteger evaluate(Expr expr, Map<Character, Integer> assignment, int base) {
+        try {
+            return BigInteger.valueOf(evaluateLong(expr, assignment, base));
+        } catch (ArithmeticException overflow) {
+            return evaluateBig(expr, assignment, BigInteger.valueOf(base));
+        }
+    }
+
+    private static long evaluateLong(Expr expr, Map<Character, Integer> assignment, int base) {
+        if (expr instanceof Word) {
+            long value = 0;
+            for (char c : ((Word) expr).text.toCharArray()) {
+                value = Math.addExact(Math.multiplyExact(value, base), assignment.get(c));
+            }
+            return value;
+        }
+        Operation operation = (Operation) expr;
+        long left = evaluateLong(operation.left, assignment, base);
+        long right = evaluateLong(operation.right, assignment, base);
+        switch (operation.operator) {
+            case '+': return Math.addExact(left, right);
+            case '-': return Math.subtractExact(left, right);
+            default:  return Math.multiplyExact(left, right);
+        }
+    }
+
+    private static BigInteger evaluateBig(Expr expr, Map<Character, Integer> assignment, BigInteger base) {
+        if (expr instanceof Word) {
+            BigInteger value = BigInteger.ZERO;
+            for (char c : ((Word) expr).text.toCharArray()) {
+                value = value.multiply(base).add(BigInteger.valueOf(assignment.get(c)));
+            }
+            return value;
+        }
+        Operation operation = (Operation) expr;
+        BigInteger left = evaluateBig(operation.left, assignment, base);
+        BigInteger right = evaluateBig(operation.right, assignment, base);
+        switch (operation.operator) {
+            case '+': return left.add(right);
+            case '-': return left.subtract(right);
+            default:  return left.multiply(right);
+        }
+    }
+
+    /**
+     * Checks an assignment directly against the equation: every letter assigned, digits
+     * distinct and below base, no leading zero, and both sides equal.
+     */
+    static boolean holds(Expr left, Expr right, Map<Character, Integer> assignment, int base) {
+        List<String> words = new ArrayList<>();
+        collectWords(left, words);
+        collectWords(right, words);
+        Map<Integer, Character> owners = new HashMap<>();
+        for (String word : words) {
+            for (char c : word.toCharArray()) {
+                Integer digit = assignment.get(c);
+                if (digit == null || digit < 0 || digit >= base) return false;
+                Character owner = owners.putIfAbsent(digit, c);
+                if (owner != null && owner != c) return false;
+            }
+            if (!word.isEmpty() && assignment.get(word.charAt(0)) == 0) return false;
+        }
+        return evaluate(left, assignment, base).equals(evaluate(right, assignment, base));
+    }
+}
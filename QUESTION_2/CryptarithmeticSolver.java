@@ -47,24 +47,79 @@ Since 1449 ≠ 57392, this mapping is invalid, and no possible digit assignment
 
 
 //Solution
+import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 
 public class CryptarithmeticSolver {
 
-    // Track which digits (0-9) have been used in assignments
-    private static boolean[] used = new boolean[10];
+    // Number base of the puzzles
+    static final int BASE = 10;
 
-    // Mapping from letter -> assigned digit
-    private static Map<Character, Integer> assignment = new HashMap<>();
+    // Enumerated letters above which solveParallel hands subtrees to the pool; depth 3 gives up
+    // to 720 subtrees, enough to keep 32 workers busy while each subtree stays worth a task
+    static final int PARALLEL_SPLIT_DEPTH = 3;
 
-    // List of unique letters to assign digits to
-    private static List<Character> letters = new ArrayList<>();
+    // The equation as given, kept for checking solutions
+    private final CryptarithmCompiler.Expr left;
+    private final CryptarithmCompiler.Expr right;
+    private final int base;
 
-    // Letters that appear as first character in any word (cannot be assigned 0)
-    private static Set<Character> leadingLetters = new HashSet<>();
+    // The compiled equation, or null when there are more letters than digits
+    private final ColumnPuzzle puzzle;
 
-    // The three words in uppercase for uniformity
-    private static String word1, word2, word3;
+    /**
+     * Prepares the equation w1 + w2 = w3. A solver holds no mutable state, so one instance can be
+     * solved from several threads at once.
+     * @param w1 first addend word
+     * @param w2 second addend word
+     * @param w3 sum word
+     */
+    public CryptarithmeticSolver(String w1, String w2, String w3) {
+        this(CryptarithmCompiler.plus(CryptarithmCompiler.word(w1.toUpperCase()), CryptarithmCompiler.word(w2.toUpperCase())),
+             CryptarithmCompiler.word(w3.toUpperCase()), BASE);
+    }
+
+    private CryptarithmeticSolver(CryptarithmCompiler.Expr left, CryptarithmCompiler.Expr right, int base) {
+        this.left = left;
+        this.right = right;
+        this.base = base;
+        this.puzzle = CryptarithmCompiler.compile(left, right, base);
+    }
+
+    /**
+     * Prepares an equation such as "SEND + MORE + MONEY = TOTAL" or "AB * C - D = EF" in base 10.
+     * @throws IllegalArgumentException if the equation cannot be parsed
+     */
+    public static CryptarithmeticSolver parse(String equation) {
+        return parse(equation, BASE);
+    }
+
+    /**
+     * Same as parse(equation) in another base (2 to 36).
+     */
+    public static CryptarithmeticSolver parse(String equation, int base) {
+        CryptarithmCompiler.Equation parsed = CryptarithmCompiler.parse(equation);
+        return of(parsed.left, parsed.right, base);
+    }
+
+    /**
+     * Prepares left = right given as expression trees (see CryptarithmCompiler.word, plus, minus, times).
+     */
+    public static CryptarithmeticSolver of(CryptarithmCompiler.Expr left, CryptarithmCompiler.Expr right, int base) {
+        return new CryptarithmeticSolver(left, right, base);
+    }
+
+    /**
+     * Checks an assignment against the equation itself, with exact (long or BigInteger) arithmetic.
+     */
+    public boolean satisfies(Map<Character, Integer> assignment) {
+        return assignment != null && CryptarithmCompiler.holds(left, right, assignment, base);
+    }
 
     /**
      * Entry point for checking solvability of equation: w1 + w2 = w3
@@ -74,120 +129,677 @@ public class CryptarithmeticSolver {
      * @return true if a valid digit assignment exists, else false
      */
     public static boolean isSolvable(String w1, String w2, String w3) {
-        // Convert words to uppercase for consistency
-        word1 = w1.toUpperCase();
-        word2 = w2.toUpperCase();
-        word3 = w3.toUpperCase();
-
-        // Reset state for new problem
-        Arrays.fill(used, false);
-        assignment.clear();
-        letters.clear();
-        leadingLetters.clear();
-
-        // Collect all unique letters appearing in the three words
-        Set<Character> uniqueChars = new HashSet<>();
-        for (char c : (word1 + word2 + word3).toCharArray()) {
-            uniqueChars.add(c);
-        }
-        letters.addAll(uniqueChars);
-
-        // Mark the first letter of each word as leading letter
-        // Leading letters cannot be assigned digit 0
-        if (!word1.isEmpty()) leadingLetters.add(word1.charAt(0));
-        if (!word2.isEmpty()) leadingLetters.add(word2.charAt(0));
-        if (!word3.isEmpty()) leadingLetters.add(word3.charAt(0));
-
-        // If there are more than 10 unique letters, solution impossible
-        if (letters.size() > 10) {
-            return false;
+        return new CryptarithmeticSolver(w1, w2, w3).solve() != null;
+    }
+
+    /**
+     * Searches for an assignment on the calling thread.
+     * @return letter to digit mapping, or null if the equation has no solution
+     */
+    public Map<Character, Integer> solve() {
+        if (puzzle == null) {
+            return null;
         }
+        return checked(toAssignment(new ColumnSearch(puzzle).solve()));
+    }
 
-        // Start recursive backtracking from first letter
-        return backtrack(0);
+    /**
+     * Same as solve, with the search tree split across the common pool.
+     */
+    public Map<Character, Integer> solveParallel() {
+        return solveParallel(ForkJoinPool.commonPool());
     }
 
     /**
-     * Recursive backtracking to assign digits to letters
-     * @param idx current index in letters list to assign
-     * @return true if a valid assignment found downstream, false otherwise
+     * Splits the search tree on the first PARALLEL_SPLIT_DEPTH enumerated letters: every digit
+     * choice at those levels becomes its own task, and idle workers steal them. The first task to
+     * find a solution publishes it; the others notice and stop at their next branch.
+     * @return letter to digit mapping, or null if the equation has no solution
      */
-    private static boolean backtrack(int idx) {
-        // Base case: all letters assigned
-        if (idx == letters.size()) {
-            return isValid();  // Check if the current assignment satisfies the equation
+    public Map<Character, Integer> solveParallel(ForkJoinPool pool) {
+        if (puzzle == null) {
+            return null;
         }
+        if (puzzle.columns == 0) {
+            return solve();
+        }
+        ColumnSearch root = new ColumnSearch(puzzle);
+        root.sharedSolution = new AtomicReference<>();
+        root.splitDepth = PARALLEL_SPLIT_DEPTH;
+        pool.invoke(new SearchTask(root, 0, 0, 0));
+        return checked(toAssignment(root.sharedSolution.get()));
+    }
 
-        char letter = letters.get(idx);
+    /**
+     * Receives the solutions of an enumeration one at a time.
+     */
+    @FunctionalInterface
+    public interface SolutionConsumer {
+        /**
+         * @param letters the distinct letters of the puzzle
+         * @param digits  digits[i] is the digit of letters[i]
+         *                (both arrays are reused for the next solution; copy them to keep them)
+         * @return true to continue with the next solution, false to stop
+         */
+        boolean accept(char[] letters, int[] digits);
+    }
 
-        // Try all digits 0-9 for this letter
-        for (int digit = 0; digit <= 9; digit++) {
-            // Skip if digit already used in another letter
-            if (used[digit]) continue;
+    /**
+     * Streams every solution to consumer, in search order, until it returns false.
+     * Solutions are never collected, so the memory used does not depend on how many there are.
+     * @return number of solutions passed to consumer
+     */
+    public long enumerate(SolutionConsumer consumer) {
+        return enumerate(consumer, Long.MAX_VALUE);
+    }
 
-            // Leading letters cannot be zero
-            if (digit == 0 && leadingLetters.contains(letter)) continue;
+    /**
+     * Same as enumerate(consumer), stopping after limit solutions.
+     */
+    public long enumerate(SolutionConsumer consumer, long limit) {
+        if (puzzle == null || limit <= 0) {
+            return 0;
+        }
+        // Every solution is checked against the equation before the consumer sees it
+        Map<Character, Integer> assignment = new HashMap<>();
+        return new ColumnSearch(puzzle).enumerate((letters, digits) -> {
+            for (int i = 0; i < letters.length; i++) {
+                assignment.put(letters[i], digits[i]);
+            }
+            checked(assignment);
+            return consumer.accept(letters, digits);
+        }, limit);
+    }
 
-            // Assign digit to current letter
-            assignment.put(letter, digit);
-            used[digit] = true;
+    /**
+     * Number of distinct solutions.
+     */
+    public long countSolutions() {
+        return enumerate((letters, digits) -> true);
+    }
+
+    /**
+     * True if the equation has exactly one solution. Stops as soon as a second one shows up.
+     */
+    public boolean hasUniqueSolution() {
+        return enumerate((letters, digits) -> true, 2) == 1;
+    }
+
+    /**
+     * Returns assignment after checking it with satisfies, so the column arithmetic can never
+     * hand out a wrong answer unnoticed.
+     * @throws IllegalStateException if a found assignment does not satisfy the equation
+     */
+    private Map<Character, Integer> checked(Map<Character, Integer> assignment) {
+        if (assignment != null && !satisfies(assignment)) {
+            throw new IllegalStateException("Column search produced " + assignment + ", which does not satisfy "
+                    + left + " = " + right);
+        }
+        return assignment;
+    }
+
+    private Map<Character, Integer> toAssignment(int[] digits) {
+        if (digits == null) {
+            return null;
+        }
+        Map<Character, Integer> assignment = new HashMap<>();
+        for (int i = 0; i < digits.length; i++) {
+            assignment.put(puzzle.letters[i], digits[i]);
+        }
+        return assignment;
+    }
+
+    /**
+     * The original solver: tries every digit permutation and checks the whole equation once all
+     * letters are assigned. Kept as a reference for cross-checking the column solver.
+     */
+    static boolean isSolvableByPermutation(String w1, String w2, String w3) {
+        return new PermutationSearch().isSolvable(w1, w2, w3);
+    }
+
+    /**
+     * State of one permutation search.
+     */
+    static final class PermutationSearch {
 
-            // Recurse for next letter
-            if (backtrack(idx + 1)) {
-                return true;  // Found valid assignment, bubble up success
+        // Track which digits (0-9) have been used in assignments
+        private final boolean[] used = new boolean[10];
+
+        // Mapping from letter -> assigned digit
+        private final Map<Character, Integer> assignment = new HashMap<>();
+
+        // List of unique letters to assign digits to
+        private final List<Character> letters = new ArrayList<>();
+
+        // Letters that appear as first character in any word (cannot be assigned 0)
+        private final Set<Character> leadingLetters = new HashSet<>();
+
+        // The three words in uppercase for uniformity
+        private String word1, word2, word3;
+
+        boolean isSolvable(String w1, String w2, String w3) {
+            // Convert words to uppercase for consistency
+            word1 = w1.toUpperCase();
+            word2 = w2.toUpperCase();
+            word3 = w3.toUpperCase();
+
+            // Reset state for new problem
+            Arrays.fill(used, false);
+            assignment.clear();
+            letters.clear();
+            leadingLetters.clear();
+
+            // Collect all unique letters appearing in the three words
+            Set<Character> uniqueChars = new HashSet<>();
+            for (char c : (word1 + word2 + word3).toCharArray()) {
+                uniqueChars.add(c);
             }
+            letters.addAll(uniqueChars);
 
-            // Backtrack: unassign letter and digit
-            used[digit] = false;
-            assignment.remove(letter);
+            // Mark the first letter of each word as leading letter
+            // Leading letters cannot be assigned digit 0
+            if (!word1.isEmpty()) leadingLetters.add(word1.charAt(0));
+            if (!word2.isEmpty()) leadingLetters.add(word2.charAt(0));
+            if (!word3.isEmpty()) leadingLetters.add(word3.charAt(0));
+
+            // If there are more than 10 unique letters, solution impossible
+            if (letters.size() > 10) {
+                return false;
+            }
+
+            // Start recursive backtracking from first letter
+            return backtrack(0);
         }
 
-        // No digit assignment worked for this letter
-        return false;
+        /**
+         * Recursive backtracking to assign digits to letters
+         * @param idx current index in letters list to assign
+         * @return true if a valid assignment found downstream, false otherwise
+         */
+        private boolean backtrack(int idx) {
+            // Base case: all letters assigned
+            if (idx == letters.size()) {
+                return isValid();  // Check if the current assignment satisfies the equation
+            }
+
+            char letter = letters.get(idx);
+
+            // Try all digits 0-9 for this letter
+            for (int digit = 0; digit <= 9; digit++) {
+                // Skip if digit already used in another letter
+                if (used[digit]) continue;
+
+                // Leading letters cannot be zero
+                if (digit == 0 && leadingLetters.contains(letter)) continue;
+
+                // Assign digit to current letter
+                assignment.put(letter, digit);
+                used[digit] = true;
+
+                // Recurse for next letter
+                if (backtrack(idx + 1)) {
+                    return true;  // Found valid assignment, bubble up success
+                }
+
+                // Backtrack: unassign letter and digit
+                used[digit] = false;
+                assignment.remove(letter);
+            }
+
+            // No digit assignment worked for this letter
+            return false;
+        }
+
+        /**
+         * Check if the currently assigned digits satisfy the equation: word1 + word2 == word3
+         * @return true if valid, false otherwise
+         */
+        private boolean isValid() {
+            try {
+                long val1 = toNumber(word1);
+                long val2 = toNumber(word2);
+                long val3 = toNumber(word3);
+
+                // Check sum equality
+                return val1 + val2 == val3;
+            } catch (NumberFormatException e) {
+                // Thrown if a word has leading zero, making assignment invalid
+                return false;
+            }
+        }
+
+        /**
+         * Convert a word to its numeric value based on current letter-to-digit assignment
+         * @param word input word
+         * @return numeric value represented by the word
+         * @throws NumberFormatException if word has leading zero for multi-char word
+         */
+        private long toNumber(String word) {
+            if (word.isEmpty()) return 0;
+
+            long num = 0;
+            for (char c : word.toCharArray()) {
+                num = num * 10 + assignment.get(c);
+            }
+            // Check for leading zero in multi-character word
+            if (word.length() > 1 && assignment.get(word.charAt(0)) == 0) {
+                throw new NumberFormatException("Leading zero");
+            }
+            return num;
+        }
     }
 
     /**
-     * Check if the currently assigned digits satisfy the equation: word1 + word2 == word3
-     * @return true if valid, false otherwise
+     * An equation compiled into one constraint per column (see CryptarithmCompiler). Column 0 is
+     * the least significant digit. For every column c:
+     *     sum(linear terms of c) + sum(product terms of c) + carry(c) = base * carry(c + 1)
+     * with carry(0) = 0 and the carry out of the last column equal to 0. Letters are dense
+     * indices 0..letters.length - 1, and each one is assigned in the first column it appears in.
+     *
+     * Column sums are bounded at compile time: every coefficient times the largest digit (raised
+     * to the number of factors for a product), plus the largest carry the column below can pass
+     * up. When some bound does not fit in a long, bigColumns is set and the search does its
+     * column arithmetic with BigInteger; otherwise plain long arithmetic cannot overflow.
      */
-    private static boolean isValid() {
-        try {
-            long val1 = toNumber(word1);
-            long val2 = toNumber(word2);
-            long val3 = toNumber(word3);
-
-            // Check sum equality
-            return val1 + val2 == val3;
-        } catch (NumberFormatException e) {
-            // Thrown if a word has leading zero, making assignment invalid
+    static final class ColumnPuzzle {
+        final int base;
+        final boolean bigColumns;           // some column sum or carry may leave the long range
+        final char[] letters;               // dense index -> letter
+        final boolean[] nonZero;            // first letter of some word
+        final int columns;
+        final int[][] columnLetters;        // letters with a linear term in each column
+        final long[][] columnCoefficients;  // their coefficients
+        final int[][][] productFactors;     // product terms of each column: the letters multiplied
+        final long[][] productCoefficients; // and the coefficients
+        final int[][] newLetters;           // letters first seen in each column, in assignment order
+        final long[] solvedCoefficient;     // coefficient of the last new letter if it can be solved for, else 0
+        final long[] solvedInverse;         // its inverse modulo base
+
+        ColumnPuzzle(int base, char[] letters, boolean[] nonZero, int[][] newLetters, long[][] coefficients,
+                     int[][][] productFactors, long[][] productCoefficients) {
+            this.base = base;
+            this.letters = letters;
+            this.nonZero = nonZero;
+            this.columns = coefficients.length;
+            this.columnLetters = new int[columns][];
+            this.columnCoefficients = new long[columns][];
+            this.productFactors = productFactors;
+            this.productCoefficients = productCoefficients;
+            this.newLetters = newLetters;
+            this.solvedCoefficient = new long[columns];
+            this.solvedInverse = new long[columns];
+
+            for (int c = 0; c < columns; c++) {
+                int count = 0;
+                for (long coefficient : coefficients[c]) {
+                    if (coefficient != 0) count++;
+                }
+                columnLetters[c] = new int[count];
+                columnCoefficients[c] = new long[count];
+                count = 0;
+                for (int j = 0; j < letters.length; j++) {
+                    if (coefficients[c][j] != 0) {
+                        columnLetters[c][count] = j;
+                        columnCoefficients[c][count++] = coefficients[c][j];
+                    }
+                }
+
+                // Move a new letter whose coefficient is invertible modulo base to the end: once the
+                // others are set, the column fixes its digit and it never has to be enumerated.
+                // A letter inside a product term of the column does not qualify.
+                int[] fresh = newLetters[c];
+                for (int k = fresh.length - 1; k >= 0; k--) {
+                    long inverse = inverse(coefficients[c][fresh[k]], base);
+                    if (inverse != 0 && !inProduct(productFactors[c], fresh[k])) {
+                        int letter = fresh[k];
+                        System.arraycopy(fresh, k + 1, fresh, k, fresh.length - 1 - k);
+                        fresh[fresh.length - 1] = letter;
+                        solvedCoefficient[c] = coefficients[c][letter];
+                        solvedInverse[c] = inverse;
+                        break;
+                    }
+                }
+            }
+            this.bigColumns = !columnSumsFitLong(base, coefficients, productFactors, productCoefficients);
+        }
+
+        /**
+         * True if no column sum (carry in included) can leave the long range.
+         */
+        static boolean columnSumsFitLong(int base, long[][] coefficients, int[][][] productFactors,
+                                         long[][] productCoefficients) {
+            BigInteger maxDigit = BigInteger.valueOf(base - 1);
+            BigInteger limit = BigInteger.valueOf(Long.MAX_VALUE);
+            BigInteger carryBound = BigInteger.ZERO; // |carry into the column|
+            for (int c = 0; c < coefficients.length; c++) {
+                BigInteger bound = carryBound;
+                for (long coefficient : coefficients[c]) {
+                    bound = bound.add(BigInteger.valueOf(coefficient).abs().multiply(maxDigit));
+                }
+                for (int t = 0; t < productFactors[c].length; t++) {
+                    bound = bound.add(BigInteger.valueOf(productCoefficients[c][t]).abs()
+                            .multiply(maxDigit.pow(productFactors[c][t].length)));
+                }
+                if (bound.compareTo(limit) > 0) {
+                    return false;
+                }
+                // |floorDiv(sum, base)| <= |sum| / base + 1
+                carryBound = bound.divide(BigInteger.valueOf(base)).add(BigInteger.ONE);
+            }
+            return true;
+        }
+
+        /**
+         * Compiles sum(signs[i] * words[i]) = 0 in the given base.
+         *
+         * @return the compiled puzzle, or null if there are more distinct letters than digits
+         */
+        static ColumnPuzzle compile(String[] words, int[] signs, int base) {
+            CryptarithmCompiler.Expr left = null;
+            CryptarithmCompiler.Expr right = null;
+            for (int i = 0; i < words.length; i++) {
+                CryptarithmCompiler.Expr word = CryptarithmCompiler.word(words[i]);
+                if (signs[i] > 0) {
+                    left = left == null ? word : CryptarithmCompiler.plus(left, word);
+                } else {
+                    right = right == null ? word : CryptarithmCompiler.plus(right, word);
+                }
+            }
+            return CryptarithmCompiler.compile(
+                    left == null ? CryptarithmCompiler.word("") : left,
+                    right == null ? CryptarithmCompiler.word("") : right, base);
+        }
+
+        private static boolean inProduct(int[][] products, int letter) {
+            for (int[] factors : products) {
+                for (int factor : factors) {
+                    if (factor == letter) return true;
+                }
+            }
             return false;
         }
+
+        /**
+         * Inverse of a modulo m, or 0 if there is none.
+         */
+        static long inverse(long a, int m) {
+            long r = Math.floorMod(a, m);
+            for (long x = 1; x < m; x++) {
+                if (r * x % m == 1) return x;
+            }
+            return 0;
+        }
     }
 
     /**
-     * Convert a word to its numeric value based on current letter-to-digit assignment
-     * @param word input word
-     * @return numeric value represented by the word
-     * @throws NumberFormatException if word has leading zero for multi-char word
+     * Depth-first search over a ColumnPuzzle, from the least significant column up. A column is
+     * checked as soon as its letters are assigned, so a wrong partial assignment is dropped after
+     * at most one column instead of after all letters. The state is a primitive digit array and
+     * a bitmask of used digits, private to one search, so searches never share mutable state
+     * other than sharedSolution.
      */
-    private static long toNumber(String word) {
-        if (word.isEmpty()) return 0;
+    static final class ColumnSearch {
+        final ColumnPuzzle puzzle;
+        final int[] digits;  // digit of each letter, -1 if unassigned
+        long usedDigits;     // bit d set when digit d is taken
+        long nodes;          // digits tried, including forced ones
+
+        // Parallel search only: first solution found by any task, and the split below which
+        // enumerated letters fork one task per digit instead of recursing
+        AtomicReference<int[]> sharedSolution;
+        int splitDepth;
+        int enumerated;      // enumerated (not forced) letters currently assigned
+
+        // bigColumns puzzles only: carry into each column, set before the search descends into
+        // it; the long carry parameters are then unused
+        final BigInteger[] bigCarries;
+        final BigInteger bigBase;
+
+        ColumnSearch(ColumnPuzzle puzzle) {
+            this.puzzle = puzzle;
+            this.digits = new int[puzzle.letters.length];
+            Arrays.fill(digits, -1);
+            this.bigBase = BigInteger.valueOf(puzzle.base);
+            if (puzzle.bigColumns) {
+                bigCarries = new BigInteger[puzzle.columns + 1];
+                bigCarries[0] = BigInteger.ZERO;
+            } else {
+                bigCarries = null;
+            }
+        }
+
+        private ColumnSearch(ColumnSearch parent) {
+            this.puzzle = parent.puzzle;
+            this.digits = parent.digits.clone();
+            this.bigBase = parent.bigBase;
+            this.bigCarries = parent.bigCarries == null ? null : parent.bigCarries.clone();
+            this.usedDigits = parent.usedDigits;
+            this.sharedSolution = parent.sharedSolution;
+            this.splitDepth = parent.splitDepth;
+            this.enumerated = parent.enumerated;
+        }
+
+        /**
+         * @return the digit of every letter (by dense index), or null if there is no solution
+         */
+        int[] solve() {
+            return column(0, 0) ? digits.clone() : null;
+        }
+
+        /**
+         * Reports every solution to consumer, at most limit of them.
+         * @return number of solutions reported
+         */
+        long enumerate(SolutionConsumer consumer, long limit) {
+            this.consumer = consumer;
+            this.limit = limit;
+            this.letters = puzzle.letters.clone();
+            this.solutionDigits = new int[digits.length];
+            column(0, 0);
+            return solutions;
+        }
+
+        // Enumeration only: where solutions go, and how many are wanted
+        private SolutionConsumer consumer;
+        private long limit;
+        private long solutions;
+        private char[] letters;
+        private int[] solutionDigits;
+
+        /**
+         * @return true to stop the search
+         */
+        private boolean column(int c, long carry) {
+            if (c == puzzle.columns) {
+                if (bigCarries != null ? bigCarries[c].signum() != 0 : carry != 0) {
+                    return false;
+                }
+                if (consumer == null) {
+                    return true; // first solution is all that was asked for
+                }
+                // Hand out a copy so the consumer cannot disturb the search
+                System.arraycopy(digits, 0, solutionDigits, 0, digits.length);
+                solutions++;
+                return !consumer.accept(letters, solutionDigits) || solutions >= limit;
+            }
+            return assign(c, 0, carry);
+        }
 
-        long num = 0;
-        for (char c : word.toCharArray()) {
-            num = num * 10 + assignment.get(c);
+        /**
+         * Assigns the k-th new letter of column c, then checks the column and moves on.
+         */
+        private boolean assign(int c, int k, long carry) {
+            int[] fresh = puzzle.newLetters[c];
+            boolean solveLast = puzzle.solvedCoefficient[c] != 0;
+            if (k == fresh.length || (solveLast && k == fresh.length - 1)) {
+                if (bigCarries != null) {
+                    return checkColumnBig(c, k);
+                }
+                long sum = carry;
+                int[] columnLetters = puzzle.columnLetters[c];
+                long[] coefficients = puzzle.columnCoefficients[c];
+                for (int i = 0; i < columnLetters.length; i++) {
+                    int digit = digits[columnLetters[i]];
+                    if (digit >= 0) sum += coefficients[i] * digit;
+                }
+                int[][] products = puzzle.productFactors[c];
+                for (int t = 0; t < products.length; t++) {
+                    long product = puzzle.productCoefficients[c][t];
+                    for (int factor : products[t]) {
+                        product *= digits[factor];
+                    }
+                    sum += product;
+                }
+                if (k == fresh.length) {
+                    return Math.floorMod(sum, puzzle.base) == 0 && column(c + 1, Math.floorDiv(sum, puzzle.base));
+                }
+
+                // The column decides the last letter
+                int letter = fresh[k];
+                int digit = (int) Math.floorMod(Math.floorMod(-sum, puzzle.base) * puzzle.solvedInverse[c], (long) puzzle.base);
+                nodes++;
+                if (!available(letter, digit)) {
+                    return false;
+                }
+                sum += puzzle.solvedCoefficient[c] * digit;
+                set(letter, digit);
+                if (column(c + 1, Math.floorDiv(sum, puzzle.base))) {
+                    return true;
+                }
+                unset(letter);
+                return false;
+            }
+
+            int letter = fresh[k];
+            if (enumerated < splitDepth) {
+                return fork(c, k, carry, letter);
+            }
+            for (int digit = 0; digit < puzzle.base; digit++) {
+                if (!available(letter, digit)) continue;
+                if (sharedSolution != null && sharedSolution.get() != null) {
+                    return false; // another task already found one
+                }
+                nodes++;
+                set(letter, digit);
+                enumerated++;
+                if (assign(c, k + 1, carry)) {
+                    return true;
+                }
+                enumerated--;
+                unset(letter);
+            }
+            return false;
         }
-        // Check for leading zero in multi-character word
-        if (word.length() > 1 && assignment.get(word.charAt(0)) == 0) {
-            throw new NumberFormatException("Leading zero");
+
+        /**
+         * The column check of assign for bigColumns puzzles, with the carry kept in bigCarries.
+         */
+        private boolean checkColumnBig(int c, int k) {
+            BigInteger sum = bigCarries[c];
+            int[] columnLetters = puzzle.columnLetters[c];
+            long[] coefficients = puzzle.columnCoefficients[c];
+            for (int i = 0; i < columnLetters.length; i++) {
+                int digit = digits[columnLetters[i]];
+                if (digit > 0) sum = sum.add(BigInteger.valueOf(coefficients[i]).multiply(BigInteger.valueOf(digit)));
+            }
+            int[][] products = puzzle.productFactors[c];
+            for (int t = 0; t < products.length; t++) {
+                BigInteger product = BigInteger.valueOf(puzzle.productCoefficients[c][t]);
+                for (int factor : products[t]) {
+                    product = product.multiply(BigInteger.valueOf(digits[factor]));
+                }
+                sum = sum.add(product);
+            }
+            int[] fresh = puzzle.newLetters[c];
+            if (k == fresh.length) {
+                if (sum.mod(bigBase).signum() != 0) {
+                    return false;
+                }
+                bigCarries[c + 1] = sum.divide(bigBase); // exact, so no floor adjustment
+                return column(c + 1, 0);
+            }
+
+            // The column decides the last letter
+            int letter = fresh[k];
+            int digit = (int) Math.floorMod(sum.negate().mod(bigBase).longValue() * puzzle.solvedInverse[c], (long) puzzle.base);
+            nodes++;
+            if (!available(letter, digit)) {
+                return false;
+            }
+            sum = sum.add(BigInteger.valueOf(puzzle.solvedCoefficient[c]).multiply(BigInteger.valueOf(digit)));
+            set(letter, digit);
+            bigCarries[c + 1] = sum.divide(bigBase);
+            if (column(c + 1, 0)) {
+                return true;
+            }
+            unset(letter);
+            return false;
+        }
+
+        /**
+         * Runs every digit choice for letter as its own task. A solution found below is
+         * published through sharedSolution rather than returned.
+         */
+        private boolean fork(int c, int k, long carry, int letter) {
+            List<SearchTask> subtrees = new ArrayList<>();
+            for (int digit = 0; digit < puzzle.base; digit++) {
+                if (!available(letter, digit)) continue;
+                ColumnSearch child = new ColumnSearch(this);
+                child.set(letter, digit);
+                child.enumerated++;
+                subtrees.add(new SearchTask(child, c, k + 1, carry));
+            }
+            nodes += subtrees.size();
+            ForkJoinTask.invokeAll(subtrees);
+            return false;
+        }
+
+        private boolean available(int letter, int digit) {
+            return (usedDigits & (1L << digit)) == 0 && (digit != 0 || !puzzle.nonZero[letter]);
+        }
+
+        private void set(int letter, int digit) {
+            digits[letter] = digit;
+            usedDigits |= 1L << digit;
+        }
+
+        private void unset(int letter) {
+            usedDigits &= ~(1L << digits[letter]);
+            digits[letter] = -1;
+        }
+    }
+
+    /**
+     * One subtree of a parallel search: resumes a copied search at the k-th new letter of column c.
+     */
+    static final class SearchTask extends RecursiveAction {
+        private final ColumnSearch search;
+        private final int column;
+        private final int k;
+        private final long carry;
+
+        SearchTask(ColumnSearch search, int column, int k, long carry) {
+            this.search = search;
+            this.column = column;
+            this.k = k;
+            this.carry = carry;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.sharedSolution.get() != null) {
+                return; // cancelled before it started
+            }
+            if (search.assign(column, k, carry)) {
+                search.sharedSolution.compareAndSet(null, search.digits.clone());
+            }
         }
-        return num;
     }
 
     /**
-     * Helper to print the current assignment in sorted letter order
+     * Helper to print an assignment in sorted letter order
      */
-    private static void printAssignment() {
+    private static void printAssignment(Map<Character, Integer> assignment) {
         System.out.print("Assignment: ");
         List<String> pairs = new ArrayList<>();
         for (var entry : assignment.entrySet()) {
@@ -204,37 +816,239 @@ public class CryptarithmeticSolver {
     public static void main(String[] args) {
          // Test Case 1: "SEND" + "MORE" = "MONEY" → Classic solvable puzzle
         System.out.println("Test 1: SEND + MORE = MONEY");
-        boolean result1 = isSolvable("SEND", "MORE", "MONEY");
-        System.out.println("Solvable: " + (result1 ? " Yes" : " No"));
-        if (result1) printAssignment();
+        Map<Character, Integer> result1 = new CryptarithmeticSolver("SEND", "MORE", "MONEY").solve();
+        System.out.println("Solvable: " + (result1 != null ? " Yes" : " No"));
+        if (result1 != null) printAssignment(result1);
         System.out.println();
 
         // Test Case 2: "CODE" + "BUG" = "DEBUG"
         System.out.println("Test 2: CODE + BUG = DEBUG");
-        boolean result2 = isSolvable("CODE", "BUG", "DEBUG");
-        System.out.println("Solvable: " + (result2 ? " Yes" : " No"));
-        if (result2) printAssignment();
+        Map<Character, Integer> result2 = new CryptarithmeticSolver("CODE", "BUG", "DEBUG").solve();
+        System.out.println("Solvable: " + (result2 != null ? " Yes" : " No"));
+        if (result2 != null) printAssignment(result2);
         else System.out.println("No valid assignment found.");
         System.out.println();
 
         // ======= Test Case 3 (True Case) =======
         // "SEND" + "MORE" = "MONEY" (classic solvable puzzle)
         System.out.println("Test 3: SEND + MORE = MONEY");
-        boolean result3 = isSolvable("SEND", "MORE", "MONEY");
-        System.out.println("Solvable: " + (result3 ? " Yes" : " No"));
-        if (result3) printAssignment();
+        Map<Character, Integer> result3 = new CryptarithmeticSolver("SEND", "MORE", "MONEY").solve();
+        System.out.println("Solvable: " + (result3 != null ? " Yes" : " No"));
+        if (result3 != null) printAssignment(result3);
         else System.out.println("No valid assignment found.");
         System.out.println();
 
         // ======= Test Case 4 (False Case) =======
         // "ABCD" + "EFGRnH" = "AAAAB" (highly restrictive, unsolvable)
         System.out.println("Test 4: ABCD + EFGRnH = AAAAB");
-        boolean result4 = isSolvable("ABCD", "EFGRnH", "AAAAB");
-        System.out.println("Solvable: " + (result4 ? " Yes" : " No"));
-        if (result4) printAssignment();
+        Map<Character, Integer> result4 = new CryptarithmeticSolver("ABCD", "EFGRnH", "AAAAB").solve();
+        System.out.println("Solvable: " + (result4 != null ? " Yes" : " No"));
+        if (result4 != null) printAssignment(result4);
         else System.out.println("No valid assignment found.");
         System.out.println();
-    
+
+        // ======= Test Case 5: nodes explored, column search vs all permutations =======
+        System.out.println("Test 5: search effort");
+        String[][] puzzles = {{"SEND", "MORE", "MONEY"}, {"CROSS", "ROADS", "DANGER"}, {"ABCDE", "FGHIJ", "AAAAAA"}};
+        for (String[] puzzle : puzzles) {
+            ColumnSearch search = new ColumnSearch(ColumnPuzzle.compile(puzzle, new int[]{1, 1, -1}, BASE));
+            long start = System.nanoTime();
+            boolean columns = search.solve() != null;
+            long columnTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            boolean permutations = isSolvableByPermutation(puzzle[0], puzzle[1], puzzle[2]);
+            long permutationTime = System.nanoTime() - start;
+            System.out.printf("%s + %s = %s: %s, %d nodes, %.2f ms (permutations %.2f ms)%s%n",
+                    puzzle[0], puzzle[1], puzzle[2], columns ? "solvable" : "unsolvable", search.nodes,
+                    columnTime / 1e6, permutationTime / 1e6, columns == permutations ? "" : " MISMATCH");
+        }
+        System.out.println();
+
+        // ======= Test Case 6: random puzzles against the permutation solver, sequential and parallel =======
+        Random random = new Random(13);
+        boolean passed = true;
+        for (int t = 0; t < 300 && passed; t++) {
+            String[] words = new String[3];
+            for (int w = 0; w < 3; w++) {
+                char[] word = new char[random.nextInt(4) + (w == 2 ? 1 : 0)];
+                for (int i = 0; i < word.length; i++) {
+                    word[i] = (char) ('A' + random.nextInt(6));
+                }
+                words[w] = new String(word);
+            }
+            boolean expected = isSolvableByPermutation(words[0], words[1], words[2]);
+            CryptarithmeticSolver solver = new CryptarithmeticSolver(words[0], words[1], words[2]);
+            Map<Character, Integer> sequential = solver.solve();
+            Map<Character, Integer> parallel = solver.solveParallel();
+            if ((sequential != null) != expected || (parallel != null) != expected
+                    || (expected && !(satisfiesAssignment(words, sequential) && satisfiesAssignment(words, parallel)))) {
+                System.out.println("Mismatch on " + words[0] + " + " + words[1] + " = " + words[2]);
+                passed = false;
+            }
+        }
+        System.out.println("Test 6: random puzzles " + (passed ? "PASSED" : "FAILED"));
+
+        // ======= Test Case 7: one solver instance used from several threads at once =======
+        CryptarithmeticSolver shared = new CryptarithmeticSolver("CROSS", "ROADS", "DANGER");
+        String[] words = {"CROSS", "ROADS", "DANGER"};
+        boolean reentrant = IntStream.range(0, 64).parallel()
+                .allMatch(i -> satisfiesAssignment(words, i % 2 == 0 ? shared.solve() : shared.solveParallel()));
+        System.out.println("Test 7: concurrent use " + (reentrant ? "PASSED" : "FAILED"));
+        System.out.println();
+
+        // ======= Test Case 8: counting and uniqueness against counting every permutation =======
+        String[][] counted = {{"SEND", "MORE", "MONEY"}, {"TWO", "TWO", "FOUR"}, {"A", "B", "C"}, {"CODE", "BUG", "DEBUG"}};
+        for (String[] puzzle : counted) {
+            CryptarithmeticSolver solver = new CryptarithmeticSolver(puzzle[0], puzzle[1], puzzle[2]);
+            long count = solver.countSolutions();
+            System.out.printf("Test 8: %s + %s = %s has %d solution(s), unique: %b%s%n", puzzle[0], puzzle[1],
+                    puzzle[2], count, solver.hasUniqueSolution(), count == countByPermutation(puzzle) ? "" : " MISMATCH");
+        }
+        // First three solutions of TWO + TWO = FOUR, streamed
+        new CryptarithmeticSolver("TWO", "TWO", "FOUR").enumerate((letters, digits) -> {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < letters.length; i++) line.append(' ').append(letters[i]).append('=').append(digits[i]);
+            System.out.println(" " + line);
+            return true;
+        }, 3);
+
+        // ======= Test Case 9: more terms, subtraction, multiplication and other bases =======
+        System.out.println();
+        String[] equations = {
+            "SO + MANY + MORE + MEN + SEEM + TO + SAY + THAT + THEY + MAY + SOON + TRY + TO + STAY + AT + HOME"
+                + " + SO + AS + TO + SEE + OR + HEAR + THE + SAME + ONE + MAN + TRY + TO + MEET + THE + TEAM"
+                + " + ON + THE + MOON + AS + HE + HAS + AT + THE + OTHER + TEN = TESTS",
+            "SIXTY - TEN - TEN = FORTY",
+            "ABC * DE = FGHC",
+            "(NO + NO) * TOO = LATE"
+        };
+        for (String equation : equations) {
+            CryptarithmeticSolver solver = parse(equation);
+            Map<Character, Integer> solution = solver.solve();
+            String shown = equation.length() > 40 ? equation.substring(0, 37) + "..." : equation;
+            System.out.printf("Test 9: %s -> %d solution(s), first %s%s%n", shown, solver.countSolutions(),
+                    solution == null ? "none" : new TreeMap<>(solution), solution == null || solver.satisfies(solution) ? "" : " INVALID");
+        }
+        CryptarithmeticSolver hex = of(CryptarithmCompiler.sum("SEND", "MORE"), CryptarithmCompiler.word("MONEY"), 16);
+        System.out.println("Test 9: SEND + MORE = MONEY in base 16 -> " + hex.countSolutions() + " solution(s)");
+
+        // A^15 in base 36: column sums reach 35^15, past the range of long
+        CryptarithmeticSolver power = parse("A*A*A*A*A*A*A*A*A*A*A*A*A*A*A = BCDEFGHIJKLMN", 36);
+        Map<Character, Integer> powerSolution = power.solve();
+        long powerCount = power.countSolutions();
+        boolean powerFound = powerSolution != null && power.satisfies(powerSolution) && powerCount >= 1;
+        System.out.println("Test 9: A^15 = BCDEFGHIJKLMN in base 36 -> " + powerCount + " solution(s), A = "
+                + (powerSolution == null ? "none" : powerSolution.get('A')) + " " + (powerFound ? "PASSED" : "FAILED"));
+
+        // Random equations with all three operators, bases 5 to 10, against brute force
+        boolean general = true;
+        for (int t = 0; t < 200 && general; t++) {
+            int puzzleBase = 5 + random.nextInt(6);
+            CryptarithmCompiler.Expr[] sides = new CryptarithmCompiler.Expr[2];
+            for (int side = 0; side < 2; side++) {
+                sides[side] = randomWord(random);
+                for (int terms = random.nextInt(3); terms > 0; terms--) {
+                    CryptarithmCompiler.Expr next = randomWord(random);
+                    switch (random.nextInt(3)) {
+                        case 0: sides[side] = CryptarithmCompiler.plus(sides[side], next); break;
+                        case 1: sides[side] = CryptarithmCompiler.minus(sides[side], next); break;
+                        default: sides[side] = CryptarithmCompiler.times(sides[side], next); break;
+                    }
+                }
+            }
+            CryptarithmeticSolver solver = of(sides[0], sides[1], puzzleBase);
+            long[] valid = {0};
+            long count = solver.enumerate((letters, digits) -> {
+                Map<Character, Integer> assignment = new HashMap<>();
+                for (int i = 0; i < letters.length; i++) assignment.put(letters[i], digits[i]);
+                if (solver.satisfies(assignment)) valid[0]++;
+                return true;
+            });
+            long expected = countByBruteForce(solver, sides[0] + " " + sides[1], puzzleBase);
+            if (count != expected || valid[0] != count) {
+                System.out.println("Mismatch on " + sides[0] + " = " + sides[1] + " in base " + puzzleBase
+                        + ": " + count + " vs " + expected);
+                general = false;
+            }
+        }
+        System.out.println("Test 9: random equations " + (general ? "PASSED" : "FAILED"));
+    }
+
+    private static CryptarithmCompiler.Expr randomWord(Random random) {
+        char[] word = new char[1 + random.nextInt(3)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('A' + random.nextInt(5));
+        }
+        return CryptarithmCompiler.word(new String(word));
+    }
+
+    /**
+     * Counts solutions of any equation by trying every injective assignment and checking it
+     * with solver.satisfies.
+     */
+    private static long countByBruteForce(CryptarithmeticSolver solver, String text, int base) {
+        List<Character> distinct = new ArrayList<>();
+        for (char c : text.toCharArray()) {
+            if (Character.isLetter(c) && !distinct.contains(c)) distinct.add(c);
+        }
+        if (distinct.size() > base) return 0;
+        return countByBruteForce(solver, distinct, new HashMap<>(), 0L, base);
+    }
+
+    private static long countByBruteForce(CryptarithmeticSolver solver, List<Character> distinct,
+                                          Map<Character, Integer> assignment, long used, int base) {
+        if (assignment.size() == distinct.size()) {
+            return solver.satisfies(assignment) ? 1 : 0;
+        }
+        char letter = distinct.get(assignment.size());
+        long count = 0;
+        for (int digit = 0; digit < base; digit++) {
+            if ((used & (1L << digit)) != 0) continue;
+            assignment.put(letter, digit);
+            count += countByBruteForce(solver, distinct, assignment, used | 1L << digit, base);
+            assignment.remove(letter);
+        }
+        return count;
+    }
+
+    /**
+     * Counts solutions by trying every injective assignment of digits to letters.
+     */
+    private static long countByPermutation(String[] words) {
+        String all = words[0] + words[1] + words[2];
+        List<Character> distinct = new ArrayList<>(new LinkedHashSet<>(all.chars().mapToObj(c -> (char) c).toList()));
+        return countByPermutation(words, distinct, new HashMap<>(), 0);
+    }
+
+    private static long countByPermutation(String[] words, List<Character> distinct, Map<Character, Integer> assignment, int used) {
+        if (assignment.size() == distinct.size()) {
+            return satisfiesAssignment(words, assignment) ? 1 : 0;
+        }
+        char letter = distinct.get(assignment.size());
+        long count = 0;
+        for (int digit = 0; digit < 10; digit++) {
+            if ((used & (1 << digit)) != 0) continue;
+            assignment.put(letter, digit);
+            count += countByPermutation(words, distinct, assignment, used | 1 << digit);
+            assignment.remove(letter);
+        }
+        return count;
+    }
+
+    /**
+     * Checks an assignment directly: distinct digits, no leading zero, w1 + w2 = w3.
+     */
+    private static boolean satisfiesAssignment(String[] words, Map<Character, Integer> assignment) {
+        if (assignment == null) return false;
+        if (new HashSet<>(assignment.values()).size() != assignment.size()) return false;
+        long[] values = new long[3];
+        for (int w = 0; w < 3; w++) {
+            if (!words[w].isEmpty() && assignment.get(words[w].charAt(0)) == 0) return false;
+            for (char c : words[w].toCharArray()) {
+                values[w] = values[w] * 10 + assignment.get(c);
+            }
+        }
+        return values[0] + values[1] == values[2];
     }
 }
 
@@ -255,4 +1069,28 @@ Assignment: D=7, E=5, M=1, N=6, O=0, R=8, S=9, Y=2
 Test 4: ABCD + EFGRnH = AAAAB
 Solvable:  No
 No valid assignment found.
+
+Test 5: search effort
+SEND + MORE = MONEY: solvable, 1961 nodes, 0.07 ms (permutations 457.15 ms)
+CROSS + ROADS = DANGER: solvable, 1153 nodes, 0.04 ms (permutations 200.95 ms)
+ABCDE + FGHIJ = AAAAAA: unsolvable, 9798 nodes, 0.15 ms (permutations 369.65 ms)
+
+Test 6: random puzzles PASSED
+Test 7: concurrent use PASSED
+
+Test 8: SEND + MORE = MONEY has 1 solution(s), unique: true
+Test 8: TWO + TWO = FOUR has 7 solution(s), unique: false
+Test 8: A + B = C has 32 solution(s), unique: false
+Test 8: CODE + BUG = DEBUG has 0 solution(s), unique: false
+  O=4 R=8 W=3 U=6 T=7 F=1
+  O=5 R=0 W=6 U=3 T=7 F=1
+  O=6 R=2 W=3 U=7 T=8 F=1
+
+Test 9: SO + MANY + MORE + MEN + SEEM + TO + ... -> 1 solution(s), first {A=7, E=0, H=5, M=2, N=6, O=1, R=8, S=3, T=9, Y=4}
+Test 9: SIXTY - TEN - TEN = FORTY -> 1 solution(s), first {E=5, F=2, I=1, N=0, O=9, R=7, S=3, T=8, X=4, Y=6}
+Test 9: ABC * DE = FGHC -> 57 solution(s), first {A=5, B=7, C=0, D=1, E=2, F=6, G=8, H=4}
+Test 9: (NO + NO) * TOO = LATE -> 1 solution(s), first {A=6, E=2, L=9, N=1, O=4, T=3}
+Test 9: SEND + MORE = MONEY in base 16 -> 28 solution(s)
+Test 9: A^15 = BCDEFGHIJKLMN in base 36 -> 1 solution(s), A = 21 PASSED
+Test 9: random equations PASSED
  */
\ No newline at end of file
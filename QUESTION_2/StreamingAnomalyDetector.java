@@ -0,0 +1,342 @@
+// Streaming Weather Anomaly Detection
+// ===================================
+// WeatherAnomalyDetection.countAnomalyPeriods needs the whole series up front. A weather station
+// pushes one reading at a time, so this detector answers as readings arrive: append(change)
+// returns how many anomaly periods end at that reading.
+//
+// A period ending at reading t and starting at reading i + 1 has total P[t] - P[i], where P is
+// the running sum. It is an anomaly when P[t] - high <= P[i] <= P[t] - low, so each reading is a
+// range count over the earlier running sums, kept in an order-statistic treap (a randomized
+// balanced search tree that knows its subtree sizes): O(log n) per reading. With a maximum
+// window length W only the last W running sums are kept, evicted through a ring buffer, so memory
+// stays O(W).
+
+import java.util.Arrays;
+import java.util.Random;
+
+public final class StreamingAnomalyDetector {
+
+    private final long low;
+    private final long high;
+    private final int maxWindow; // Integer.MAX_VALUE when unbounded
+
+    // Running sum of all readings so far (P[t])
+    private long runningSum;
+    private long readings;
+    private long total;
+
+    // P[k] sits in slot k % maxWindow until it is evicted (null when unbounded)
+    private final long[] window;
+
+    private final LongMultiset sums = new LongMultiset();
+
+    /**
+     * Detector over every period since the first reading.
+     * @param lowThreshold  lower bound of the anomaly range (inclusive)
+     * @param highThreshold upper bound of the anomaly range (inclusive)
+     */
+    public StreamingAnomalyDetector(int lowThreshold, int highThreshold) {
+        this(lowThreshold, highThreshold, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Detector over periods of at most maxWindow readings; memory is O(maxWindow).
+     * @param maxWindow longest period counted, at least 1 (Integer.MAX_VALUE for no limit)
+     */
+    public StreamingAnomalyDetector(int lowThreshold, int highThreshold, int maxWindow) {
+        if (maxWindow < 1) {
+            throw new IllegalArgumentException("Window must hold at least one reading: " + maxWindow);
+        }
+        this.low = lowThreshold;
+        this.high = highThreshold;
+        this.maxWindow = maxWindow;
+        this.window = maxWindow == Integer.MAX_VALUE ? null : new long[maxWindow];
+        sums.add(0); // P[0]
+    }
+
+    /**
+     * Adds the next reading.
+     * @return number of anomaly periods (of at most maxWindow readings) that end at this reading
+     */
+    public long append(int change) {
+        runningSum += change;
+        long found = low > high ? 0 : sums.countBetween(runningSum - high, runningSum - low);
+
+        // The next reading sees P[t - W + 1 .. t]: P[t - W] leaves the slot P[t] takes over
+        if (window != null) {
+            int slot = (int) ((readings + 1) % maxWindow);
+            if (readings + 1 >= maxWindow) {
+                sums.remove(window[slot]);
+            }
+            window[slot] = runningSum;
+        }
+        sums.add(runningSum);
+        readings++;
+        total += found;
+        return found;
+    }
+
+    /** Anomaly periods found since the first reading. */
+    public long total() {
+        return total;
+    }
+
+    public long readings() {
+        return readings;
+    }
+
+    /** Running sums currently kept (at most maxWindow). */
+    public int retained() {
+        return sums.size();
+    }
+
+    /**
+     * Multiset of longs as a treap in parallel arrays: each node holds a distinct key with its
+     * multiplicity, and size[] counts the keys (with multiplicity) in its subtree. Node 0 is the
+     * empty tree; removed nodes go on a free list threaded through left[].
+     */
+    static final class LongMultiset {
+        private long[] key = new long[16];
+        private int[] count = new int[16];
+        private int[] size = new int[16];
+        private int[] priority = new int[16];
+        private int[] left = new int[16];
+        private int[] right = new int[16];
+        private int root;
+        private int used = 1;  // nodes handed out, node 0 included
+        private int free;      // head of the free list, 0 when empty
+        private int seed = 0x9E3779B9;
+
+        int size() {
+            return size[root];
+        }
+
+        void add(long value) {
+            root = insert(root, value);
+        }
+
+        /** Removes one occurrence of value, if present. */
+        void remove(long value) {
+            root = delete(root, value);
+        }
+
+        /** Number of elements x with from <= x <= to. */
+        long countBetween(long from, long to) {
+            return from > to ? 0 : countAtMost(to) - countBelow(from);
+        }
+
+        /** Number of elements x <= value. */
+        long countAtMost(long value) {
+            long below = 0;
+            int node = root;
+            while (node != 0) {
+                if (value < key[node]) {
+                    node = left[node];
+                } else {
+                    below += size[left[node]] + count[node];
+                    if (value == key[node]) {
+                        break;
+                    }
+                    node = right[node];
+                }
+            }
+            return below;
+        }
+
+        /** Number of elements x < value. */
+        long countBelow(long value) {
+            long below = 0;
+            int node = root;
+            while (node != 0) {
+                if (value <= key[node]) {
+                    node = left[node];
+                } else {
+                    below += size[left[node]] + count[node];
+                    node = right[node];
+                }
+            }
+            return below;
+        }
+
+        private int insert(int node, long value) {
+            if (node == 0) {
+                return newNode(value);
+            }
+            if (value == key[node]) {
+                count[node]++;
+            } else if (value < key[node]) {
+                int child = insert(left[node], value);
+                left[node] = child;
+                if (priority[child] > priority[node]) {
+                    return rotateRight(node);
+                }
+            } else {
+                int child = insert(right[node], value);
+                right[node] = child;
+                if (priority[child] > priority[node]) {
+                    return rotateLeft(node);
+                }
+            }
+            size[node]++;
+            return node;
+        }
+
+        private int delete(int node, long value) {
+            if (node == 0) {
+                return 0;
+            }
+            if (value < key[node]) {
+                left[node] = delete(left[node], value);
+            } else if (value > key[node]) {
+                right[node] = delete(right[node], value);
+            } else if (count[node] > 1) {
+                count[node]--;
+            } else {
+                // Rotate the node down until it has at most one child, then unlink it
+                if (left[node] == 0 || right[node] == 0) {
+                    int child = left[node] != 0 ? left[node] : right[node];
+                    release(node);
+                    return child;
+                }
+                int top;
+                if (priority[left[node]] > priority[right[node]]) {
+                    top = rotateRight(node);
+                    right[top] = delete(node, value);
+                } else {
+                    top = rotateLeft(node);
+                    left[top] = delete(node, value);
+                }
+                update(top);
+                return top;
+            }
+            update(node);
+            return node;
+        }
+
+        private int rotateRight(int node) {
+            int top = left[node];
+            left[node] = right[top];
+            right[top] = node;
+            update(node);
+            update(top);
+            return top;
+        }
+
+        private int rotateLeft(int node) {
+            int top = right[node];
+            right[node] = left[top];
+            left[top] = node;
+            update(node);
+            update(top);
+            return top;
+        }
+
+        private void update(int node) {
+            size[node] = size[left[node]] + size[right[node]] + count[node];
+        }
+
+        private int newNode(long value) {
+            int node;
+            if (free != 0) {
+                node = free;
+                free = left[node];
+            } else {
+                if (used == key.length) {
+                    grow();
+                }
+                node = used++;
+            }
+            // xorshift priorities keep the tree balanced in expectation
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            key[node] = value;
+            count[node] = 1;
+            size[node] = 1;
+            priority[node] = seed;
+            left[node] = 0;
+            right[node] = 0;
+            return node;
+        }
+
+        private void release(int node) {
+            left[node] = free;
+            free = node;
+        }
+
+        private void grow() {
+            int capacity = key.length << 1;
+            key = Arrays.copyOf(key, capacity);
+            count = Arrays.copyOf(count, capacity);
+            size = Arrays.copyOf(size, capacity);
+            priority = Arrays.copyOf(priority, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+        }
+    }
+
+    // ============ TESTING ============
+    public static void main(String[] args) {
+        // Example 1 of the question, one reading at a time
+        StreamingAnomalyDetector detector = new StreamingAnomalyDetector(2, 5);
+        int[] example = {3, -1, -4, 6, 2};
+        StringBuilder ending = new StringBuilder();
+        for (int change : example) {
+            ending.append(detector.append(change)).append(' ');
+        }
+        System.out.println("Periods ending at each reading: " + ending.toString().trim());
+        System.out.println("Total: " + detector.total() + ", batch count: "
+                + WeatherAnomalyDetection.countAnomalyPeriods(example, 2, 5));
+
+        // Random streams against a direct count over the last maxWindow readings
+        Random random = new Random(19);
+        boolean agree = true;
+        for (int t = 0; t < 500 && agree; t++) {
+            int n = random.nextInt(200);
+            int spread = 1 + random.nextInt(10);
+            int low = random.nextInt(4 * spread + 1) - 2 * spread;
+            int high = low + random.nextInt(3 * spread) - spread / 2;
+            int maxWindow = random.nextBoolean() ? Integer.MAX_VALUE : 1 + random.nextInt(20);
+            StreamingAnomalyDetector stream = new StreamingAnomalyDetector(low, high, maxWindow);
+            int[] changes = new int[n];
+            for (int i = 0; i < n && agree; i++) {
+                changes[i] = random.nextInt(2 * spread + 1) - spread;
+                long expected = 0;
+                long sum = 0;
+                for (int start = i; start >= 0 && i - start < maxWindow; start--) {
+                    sum += changes[start];
+                    if (sum >= low && sum <= high) {
+                        expected++;
+                    }
+                }
+                agree = stream.append(changes[i]) == expected && stream.retained() == Math.min(i + 2, maxWindow);
+            }
+            if (agree && maxWindow == Integer.MAX_VALUE) {
+                agree = stream.total() == WeatherAnomalyDetection.countAnomalyPeriods(changes, low, high);
+            }
+            if (!agree) {
+                System.out.println("Mismatch on stream " + t);
+            }
+        }
+        System.out.println("Random streams: " + (agree ? "PASSED" : "FAILED"));
+
+        // Throughput: a year of minute readings through a one-day window
+        int minutes = 365 * 24 * 60;
+        StreamingAnomalyDetector live = new StreamingAnomalyDetector(-3, 3, 24 * 60);
+        long start = System.nanoTime();
+        for (int i = 0; i < minutes; i++) {
+            live.append(random.nextInt(5) - 2);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Year of minutes: %d periods, %d sums retained, %.1f million readings/s%n",
+                live.total(), live.retained(), minutes / seconds / 1e6);
+    }
+}
+
+/*
+ * -----OUTPUT------
+Periods ending at each reading: 1 1 0 2 3
+Total: 7, batch count: 7
+Random streams: PASSED
+Year of minutes: 74035706 periods, 1440 sums retained, 2.5 million readings/s
+ */
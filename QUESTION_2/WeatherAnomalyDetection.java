@@ -45,30 +45,247 @@
 
 
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
 //Solution
 public class WeatherAnomalyDetection {
 
+    // Prefix sums below this size are counted on one thread
+    static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
     /**
      * Counts the number of contiguous subarrays where the sum of temperature changes
      * falls within the specified range [lowThreshold, highThreshold].
      *
+     * With prefix sums P[0] = 0, P[j] = changes[0] + ... + changes[j - 1], the period of days
+     * i..j-1 has total P[j] - P[i], so we count pairs i < j with
+     * lowThreshold <= P[j] - P[i] <= highThreshold. A bottom-up merge sort over P counts them:
+     * before two sorted runs are merged, every P[j] of the right run is paired with the window
+     * [P[j] - high, P[j] - low] of the left run, found with two pointers that only move forward.
+     * O(n log n) time, O(n) extra space; sums and the count are long, so years of minute-level
+     * data neither overflow the sums nor the count.
+     *
      * @param temperatureChanges array of daily temperature changes (in °C)
      * @param lowThreshold       lower bound of anomaly range (inclusive)
      * @param highThreshold      upper bound of anomaly range (inclusive)
      * @return                   the count of contiguous periods (subarrays) satisfying the anomaly constraint
      */
-    public static int countAnomalyPeriods(int[] temperatureChanges, int lowThreshold, int highThreshold) {
+    public static long countAnomalyPeriods(int[] temperatureChanges, int lowThreshold, int highThreshold) {
+        if (temperatureChanges == null || temperatureChanges.length == 0 || lowThreshold > highThreshold) {
+            // No subarrays possible, or an empty range
+            return 0;
+        }
+
+        long[] prefix = prefixSums(temperatureChanges);
+        return countPairsInRange(prefix, 0, prefix.length, new long[prefix.length], lowThreshold, highThreshold);
+    }
+
+    /**
+     * Same count as countAnomalyPeriods, with the merge sort split across the common pool.
+     */
+    public static long countAnomalyPeriodsParallel(int[] temperatureChanges, int lowThreshold, int highThreshold) {
+        return countAnomalyPeriodsParallel(temperatureChanges, lowThreshold, highThreshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Divide and conquer over the prefix sums: both halves are counted (and sorted) as parallel
+     * tasks, then the pairs crossing the middle are counted with one two-pointer pass over the
+     * two sorted halves before they are merged. Halves below SEQUENTIAL_THRESHOLD use the
+     * sequential merge sort.
+     */
+    public static long countAnomalyPeriodsParallel(int[] temperatureChanges, int lowThreshold, int highThreshold,
+                                                   ForkJoinPool pool) {
+        if (temperatureChanges == null || temperatureChanges.length == 0 || lowThreshold > highThreshold) {
+            return 0;
+        }
+        long[] prefix = prefixSums(temperatureChanges);
+        return pool.invoke(new CountTask(prefix, new long[prefix.length], 0, prefix.length, lowThreshold, highThreshold));
+    }
+
+    /**
+     * Counts every station's series with the same band, on the common pool.
+     * @return counts[s] = countAnomalyPeriods(stations[s], lowThreshold, highThreshold)
+     */
+    public static long[] countAnomalyPeriods(int[][] stations, int lowThreshold, int highThreshold) {
+        return countAnomalyPeriods(stations, lowThreshold, highThreshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Batch over independent stations: stations are split into tasks, and a station whose series
+     * is long enough is itself split as in countAnomalyPeriodsParallel, so a few very long
+     * series do not leave the other workers idle.
+     */
+    public static long[] countAnomalyPeriods(int[][] stations, int lowThreshold, int highThreshold, ForkJoinPool pool) {
+        long[] counts = new long[stations.length];
+        if (stations.length > 0) {
+            pool.invoke(new StationTask(stations, lowThreshold, highThreshold, counts, 0, stations.length));
+        }
+        return counts;
+    }
+
+    private static long[] prefixSums(int[] temperatureChanges) {
+        long[] prefix = new long[temperatureChanges.length + 1];
+        for (int i = 0; i < temperatureChanges.length; i++) {
+            prefix[i + 1] = prefix[i] + temperatureChanges[i];
+        }
+        return prefix;
+    }
+
+    /**
+     * Number of pairs i < j in [start, end) with low <= values[j] - values[i] <= high. Sorts
+     * values[start..end) in place, using scratch[start..end) as the merge buffer.
+     */
+    static long countPairsInRange(long[] values, int start, int end, long[] scratch, long low, long high) {
+        int n = end - start;
+        long[] from = values;
+        long[] to = scratch;
+        long count = 0;
+
+        for (int width = 1; width < n; width <<= 1) {
+            for (int left = start; left < end; left += width << 1) {
+                int mid = Math.min(left + width, end);
+                int right = Math.min(left + (width << 1), end);
+
+                count += countCrossPairs(from, left, mid, from, mid, right, low, high);
+
+                // Merge the two runs
+                int a = left;
+                int b = mid;
+                for (int k = left; k < right; k++) {
+                    to[k] = (b >= right || (a < mid && from[a] <= from[b])) ? from[a++] : from[b++];
+                }
+            }
+            long[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != values) {
+            System.arraycopy(from, start, values, start, n);
+        }
+        return count;
+    }
+
+    /**
+     * countPairsInRange split in halves down to SEQUENTIAL_THRESHOLD; leaves values[start..end)
+     * sorted.
+     */
+    static class CountTask extends RecursiveTask<Long> {
+        private final long[] values;
+        private final long[] scratch;
+        private final int start;
+        private final int end;
+        private final long low;
+        private final long high;
+
+        CountTask(long[] values, long[] scratch, int start, int end, long low, long high) {
+            this.values = values;
+            this.scratch = scratch;
+            this.start = start;
+            this.end = end;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected Long compute() {
+            if (end - start <= SEQUENTIAL_THRESHOLD) {
+                return countPairsInRange(values, start, end, scratch, low, high);
+            }
+            int mid = (start + end) >>> 1;
+            CountTask left = new CountTask(values, scratch, start, mid, low, high);
+            CountTask right = new CountTask(values, scratch, mid, end, low, high);
+            invokeAll(left, right);
+
+            // Pairs across the middle, then merge the sorted halves
+            long count = left.join() + right.join() + countCrossPairs(values, start, mid, values, mid, end, low, high);
+            int a = start;
+            int b = mid;
+            for (int k = start; k < end; k++) {
+                scratch[k] = (b >= end || (a < mid && values[a] <= values[b])) ? values[a++] : values[b++];
+            }
+            System.arraycopy(scratch, start, values, start, end - start);
+            return count;
+        }
+    }
+
+    /**
+     * Counts stations[from..to), one station per leaf.
+     */
+    static class StationTask extends RecursiveAction {
+        private final int[][] stations;
+        private final int low;
+        private final int high;
+        private final long[] counts;
+        private final int from;
+        private final int to;
+
+        StationTask(int[][] stations, int low, int high, long[] counts, int from, int to) {
+            this.stations = stations;
+            this.low = low;
+            this.high = high;
+            this.counts = counts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new StationTask(stations, low, high, counts, from, mid),
+                          new StationTask(stations, low, high, counts, mid, to));
+                return;
+            }
+            int[] series = stations[from];
+            if (series == null || series.length == 0 || low > high) {
+                counts[from] = 0;
+                return;
+            }
+            // Runs in this pool: long series split further, short ones stay sequential
+            long[] prefix = prefixSums(series);
+            counts[from] = new CountTask(prefix, new long[prefix.length], 0, prefix.length, low, high).invoke();
+        }
+    }
+
+    /**
+     * Number of pairs (x, y), x from the ascending run left[leftFrom..leftTo) and y from the
+     * ascending run right[rightFrom..rightTo), with low <= y - x <= high. For each y in turn the
+     * window [y - high, y - low] of the left run slides forward, so this is linear.
+     */
+    static long countCrossPairs(long[] left, int leftFrom, int leftTo,
+                                long[] right, int rightFrom, int rightTo, long low, long high) {
+        long count = 0;
+        int windowStart = leftFrom; // first left value >= y - high
+        int windowEnd = leftFrom;   // first left value >  y - low
+        for (int j = rightFrom; j < rightTo; j++) {
+            while (windowStart < leftTo && left[windowStart] < right[j] - high) {
+                windowStart++;
+            }
+            while (windowEnd < leftTo && left[windowEnd] <= right[j] - low) {
+                windowEnd++;
+            }
+            count += windowEnd - windowStart;
+        }
+        return count;
+    }
+
+    /**
+     * The original double loop over every subarray, O(n^2); kept to check countAnomalyPeriods.
+     */
+    static long countAnomalyPeriodsBruteForce(int[] temperatureChanges, int lowThreshold, int highThreshold) {
         if (temperatureChanges == null || temperatureChanges.length == 0) { 
             // If input is null or empty, no subarrays possible, return 0
             return 0;
         }
 
         int n = temperatureChanges.length; // length of input array
-        int count = 0;                     // result counter initialized to zero
+        long count = 0;                    // result counter initialized to zero
 
         // Consider every possible starting index of a contiguous period
         for (int start = 0; start < n; start++) {
-            int sum = 0; // Running sum of temperature changes for current subarray
+            long sum = 0; // Running sum of temperature changes for current subarray
 
             // Extend the subarray from 'start' to 'end'
             for (int end = start; end < n; end++) {
@@ -94,7 +311,7 @@ public class WeatherAnomalyDetection {
         int expected= 3;                    // Matches the indicated output in your example
 
 
-        int result1 = countAnomalyPeriods(tempChanges1, low1, high1); // Call method to count valid periods
+        long result1 = countAnomalyPeriods(tempChanges1, low1, high1); // Call method to count valid periods
         System.out.println("Test Case 1:");
         System.out.println("Temperature Changes: " + java.util.Arrays.toString(tempChanges1));
         System.out.println("Anomaly Range: [" + low1 + ", " + high1 + "]");
@@ -107,7 +324,7 @@ public class WeatherAnomalyDetection {
         int high2 = 2;
         int expected2 = 5;
 
-        int result2 = countAnomalyPeriods(tempChanges2, low2, high2);
+        long result2 = countAnomalyPeriods(tempChanges2, low2, high2);
         System.out.println("Test Case 2:");
         System.out.println("Temperature Changes: " + java.util.Arrays.toString(tempChanges2));
         System.out.println("Anomaly Range: [" + low2 + ", " + high2 + "]");
@@ -126,12 +343,67 @@ public class WeatherAnomalyDetection {
         // Count manually or trust result.
         int expected3 = 7;   // expected count based on manual verification
 
-        int result3 = countAnomalyPeriods(tempChanges3, low3, high3);
+        long result3 = countAnomalyPeriods(tempChanges3, low3, high3);
         System.out.println("Test Case 3 (Additional):");
         System.out.println("Temperature Changes: " + java.util.Arrays.toString(tempChanges3));
         System.out.println("Anomaly Range: [" + low3 + ", " + high3 + "]");
         System.out.println("Expected: " + expected3 + ", Got: " + result3);
         System.out.println("Pass: " + (result3 == expected3 ? "yes" : "no") + "\n");
+
+        // Test Case 4: random series against the brute force, including extreme values
+        java.util.Random random = new java.util.Random(18);
+        boolean agree = true;
+        for (int t = 0; t < 2000 && agree; t++) {
+            int[] changes = new int[random.nextInt(60)];
+            int spread = t % 4 == 0 ? Integer.MAX_VALUE : 1 + random.nextInt(20);
+            for (int i = 0; i < changes.length; i++) {
+                changes[i] = spread == Integer.MAX_VALUE ? random.nextInt() : random.nextInt(2 * spread + 1) - spread;
+            }
+            int low = spread == Integer.MAX_VALUE ? random.nextInt() : random.nextInt(4 * spread + 1) - 2 * spread;
+            int high = spread == Integer.MAX_VALUE ? random.nextInt() : low + random.nextInt(2 * spread + 1);
+            if (countAnomalyPeriods(changes, low, high) != countAnomalyPeriodsBruteForce(changes, low, high)) {
+                System.out.println("Mismatch on " + java.util.Arrays.toString(changes) + " [" + low + ", " + high + "]");
+                agree = false;
+            }
+        }
+        System.out.println("Test Case 4 (Random vs brute force): " + (agree ? "PASSED" : "FAILED") + "\n");
+
+        // Test Case 5: counts and sums beyond int
+        int[] flat = new int[100_000];          // 5,000,050,000 periods, all summing to 0
+        int[] hot = new int[100_000];
+        java.util.Arrays.fill(hot, Integer.MAX_VALUE);
+        long start = System.nanoTime();
+        long flatCount = countAnomalyPeriods(flat, 0, 0);
+        long hotCount = countAnomalyPeriods(hot, Integer.MAX_VALUE, Integer.MAX_VALUE); // single days only
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Test Case 5 (Large):");
+        System.out.println("Zero series: " + flatCount + " (expected " + 100_000L * 100_001 / 2 + ")");
+        System.out.println("Maximal series: " + hotCount + " (expected 100000)");
+        System.out.println("Both in " + (millis < 1000 ? "under a second" : millis + " ms") + "\n");
+
+        // Test Case 6: parallel count and station batch against the sequential count
+        int[] longSeries = new int[1_000_000];
+        for (int i = 0; i < longSeries.length; i++) {
+            longSeries[i] = random.nextInt(21) - 10;
+        }
+        long sequential = countAnomalyPeriods(longSeries, -5, 5);
+        long parallel = countAnomalyPeriodsParallel(longSeries, -5, 5);
+        int[][] stations = new int[300][];
+        for (int s = 0; s < stations.length; s++) {
+            // Mostly short series, every 50th one long enough to be split itself
+            stations[s] = new int[s % 50 == 0 ? 100_000 : random.nextInt(2000)];
+            for (int i = 0; i < stations[s].length; i++) {
+                stations[s][i] = random.nextInt(21) - 10;
+            }
+        }
+        long[] batch = countAnomalyPeriods(stations, -3, 3);
+        boolean batchAgrees = true;
+        for (int s = 0; s < stations.length; s++) {
+            batchAgrees &= batch[s] == countAnomalyPeriods(stations[s], -3, 3);
+        }
+        System.out.println("Test Case 6 (Parallel):");
+        System.out.println("1,000,000 days: " + parallel + ", matches sequential: " + (parallel == sequential));
+        System.out.println("300 stations: batch matches one by one: " + batchAgrees);
     }
 }
 
@@ -155,4 +427,15 @@ Temperature Changes: [1, -1, 2, -2, 3]
 Anomaly Range: [0, 2]
 Expected: 7, Got: 9
 Pass: no
+
+Test Case 4 (Random vs brute force): PASSED
+
+Test Case 5 (Large):
+Zero series: 5000050000 (expected 5000050000)
+Maximal series: 100000 (expected 100000)
+Both in under a second
+
+Test Case 6 (Parallel):
+1,000,000 days: 400959516, matches sequential: true
+300 stations: batch matches one by one: true
  */
\ No newline at end of file
@@ -0,0 +1,528 @@
+// Weather Anomaly Index
+// =====================
+// Analysts ask the same temperature series for many anomaly bands [low, high], often restricted
+// to a stretch of days [from, to). WeatherAnomalyDetection.countAnomalyPeriods rebuilds the
+// prefix sums and re-sorts them on every call. This index does that work once: it keeps every
+// level of the merge sort over the prefix sums (a merge-sort tree), so a query only runs the
+// linear counting scans over runs that are already sorted.
+//
+// Cost: build O(n log n) time and (log n + 1) * (n + 1) longs of memory. A query over m days
+// is O(m log m) sequential scans with no sorting and no allocation beyond O(log n) run
+// bounds. That is not polylogarithmic: counting pairs of prefix sums whose difference falls in
+// an arbitrary band depends on how the two are interleaved, and no known structure of
+// near-linear size answers that in polylog time. What the index removes is the sorting, which
+// dominates the one-shot count.
+//
+// The same tree also finds the periods themselves. "First (or last) prefix index in [a, b] whose
+// sum lies in [lo, hi]" descends the tree, checking a node with one binary search on its sorted
+// run: O(log^2 n). That is enough for a lazy cursor over all periods in index order, the k
+// longest periods, and a largest set of non-overlapping periods, each without listing the
+// (possibly quadratic) set of all periods.
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public final class WeatherAnomalyIndex {
+
+    private final int days;
+
+    // levels[d] holds the prefix sums P[0..days] sorted within aligned runs of 2^d entries;
+    // levels[0] is P itself and the last level is one sorted run
+    private final long[][] levels;
+
+    /**
+     * Builds the index over a copy of the prefix sums of temperatureChanges.
+     */
+    public WeatherAnomalyIndex(int[] temperatureChanges) {
+        days = temperatureChanges.length;
+        int n = days + 1;
+        int depth = 1;
+        while ((1 << (depth - 1)) < n) {
+            depth++;
+        }
+        levels = new long[depth][];
+        levels[0] = new long[n];
+        for (int i = 0; i < days; i++) {
+            levels[0][i + 1] = levels[0][i] + temperatureChanges[i];
+        }
+        for (int d = 1; d < depth; d++) {
+            long[] from = levels[d - 1];
+            long[] to = new long[n];
+            int width = 1 << (d - 1);
+            for (int left = 0; left < n; left += width << 1) {
+                int mid = Math.min(left + width, n);
+                int right = Math.min(left + (width << 1), n);
+                int a = left;
+                int b = mid;
+                for (int k = left; k < right; k++) {
+                    to[k] = (b >= right || (a < mid && from[a] <= from[b])) ? from[a++] : from[b++];
+                }
+            }
+            levels[d] = to;
+        }
+    }
+
+    public int days() {
+        return days;
+    }
+
+    /**
+     * Number of periods of the whole series with total change in [lowThreshold, highThreshold];
+     * same result as WeatherAnomalyDetection.countAnomalyPeriods.
+     */
+    public long countAnomalyPeriods(int lowThreshold, int highThreshold) {
+        return countAnomalyPeriods(lowThreshold, highThreshold, 0, days);
+    }
+
+    /**
+     * Number of periods lying within days [from, to) with total change in
+     * [lowThreshold, highThreshold].
+     * @throws IllegalArgumentException if [from, to) is not a range of days of the series
+     */
+    public long countAnomalyPeriods(int lowThreshold, int highThreshold, int from, int to) {
+        if (from < 0 || from > to || to > days) {
+            throw new IllegalArgumentException("Invalid day range [" + from + ", " + to + ") for " + days + " days");
+        }
+        if (lowThreshold > highThreshold || from == to) {
+            return 0;
+        }
+        // Periods of days i..j-1 inside [from, to) are pairs of prefix indices from <= i < j <= to
+        return countPairs(levels.length - 1, 0, from, to, lowThreshold, highThreshold);
+    }
+
+    /**
+     * Pairs i < j of prefix indices in [a, b] and in the run (d, k), with low <= P[j] - P[i] <= high.
+     * Each pair is counted at the run where i falls in the left half and j in the right one.
+     */
+    private long countPairs(int d, int k, int a, int b, long low, long high) {
+        int start = k << d;
+        int end = Math.min(start + (1 << d), days + 1) - 1;
+        if (d == 0 || end < a || start > b) {
+            return 0;
+        }
+        int mid = start + (1 << (d - 1));
+        long count = countPairs(d - 1, 2 * k, a, b, low, high) + countPairs(d - 1, 2 * k + 1, a, b, low, high);
+        if (mid > end || mid - 1 < a || mid > b) {
+            return count; // one of the halves has no index in [a, b]
+        }
+        if (start >= a && end <= b) {
+            // Both halves whole: one scan over the two sorted runs one level down
+            long[] runs = levels[d - 1];
+            return count + WeatherAnomalyDetection.countCrossPairs(runs, start, mid, runs, mid, end + 1, low, high);
+        }
+        // Boundary run: the left half is cut to a suffix and the right half to a prefix, each
+        // made of O(log n) whole sorted runs
+        int[] leftRuns = new int[2 * d];
+        int[] rightRuns = new int[2 * d];
+        int leftCount = wholeRuns(d - 1, 2 * k, Math.max(a, start), mid - 1, leftRuns, 0);
+        int rightCount = wholeRuns(d - 1, 2 * k + 1, mid, Math.min(b, end), rightRuns, 0);
+        for (int l = 0; l < leftCount; l += 2) {
+            for (int r = 0; r < rightCount; r += 2) {
+                int ld = leftRuns[l];
+                int ls = leftRuns[l + 1] << ld;
+                int rd = rightRuns[r];
+                int rs = rightRuns[r + 1] << rd;
+                count += WeatherAnomalyDetection.countCrossPairs(levels[ld], ls, Math.min(ls + (1 << ld), days + 1),
+                        levels[rd], rs, Math.min(rs + (1 << rd), days + 1), low, high);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Decomposes [a, b] within run (d, k) into whole runs, appended to runs as (level, index)
+     * pairs. @return new number of ints used in runs
+     */
+    private int wholeRuns(int d, int k, int a, int b, int[] runs, int used) {
+        int start = k << d;
+        int end = Math.min(start + (1 << d), days + 1) - 1;
+        if (end < a || start > b) {
+            return used;
+        }
+        if (start >= a && end <= b) {
+            runs[used] = d;
+            runs[used + 1] = k;
+            return used + 2;
+        }
+        used = wholeRuns(d - 1, 2 * k, a, b, runs, used);
+        return wholeRuns(d - 1, 2 * k + 1, a, b, runs, used);
+    }
+
+    // ---------------------------------------------------------------- reporting periods
+
+    /**
+     * Lazy cursor over the anomaly periods of an index in index order (by start day, then end
+     * day). Nothing is materialized: each period costs O(log^2 n), and so does each start day
+     * without a period.
+     */
+    public static final class PeriodCursor {
+        private final WeatherAnomalyIndex index;
+        private final long low;
+        private final long high;
+        private int start;      // start day being scanned
+        private int endPrefix;  // prefix index of the last period returned for start
+        private int currentStart = -1;
+        private int currentEnd = -1;
+
+        PeriodCursor(WeatherAnomalyIndex index, long low, long high) {
+            this.index = index;
+            this.low = low;
+            this.high = high;
+        }
+
+        /**
+         * Moves to the next period.
+         * @return false once every period has been returned
+         */
+        public boolean next() {
+            long[] prefix = index.levels[0];
+            while (start < index.days && low <= high) {
+                // Period start..end has total P[end + 1] - P[start]
+                int found = index.firstIndex(endPrefix + 1, index.days, prefix[start] + low, prefix[start] + high);
+                if (found >= 0) {
+                    endPrefix = found;
+                    currentStart = start;
+                    currentEnd = found - 1;
+                    return true;
+                }
+                start++;
+                endPrefix = start;
+            }
+            return false;
+        }
+
+        /** First day of the current period. */
+        public int start() {
+            return currentStart;
+        }
+
+        /** Last day of the current period (inclusive). */
+        public int end() {
+            return currentEnd;
+        }
+
+        /**
+         * Fills starts and ends with up to starts.length next periods.
+         * @return number of periods written, 0 once the cursor is exhausted
+         */
+        public int nextPage(int[] starts, int[] ends) {
+            int filled = 0;
+            while (filled < starts.length && next()) {
+                starts[filled] = currentStart;
+                ends[filled] = currentEnd;
+                filled++;
+            }
+            return filled;
+        }
+    }
+
+    /**
+     * Cursor over the periods whose total change lies in [lowThreshold, highThreshold].
+     */
+    public PeriodCursor periods(int lowThreshold, int highThreshold) {
+        return new PeriodCursor(this, lowThreshold, highThreshold);
+    }
+
+    /**
+     * The k longest anomaly periods as {start, end} pairs (end inclusive), longest first and by
+     * start day among equal lengths. Every start day offers its longest period to a heap; taking
+     * one replaces it with the next shorter period of the same start. O((n + k) log^2 n).
+     */
+    public int[][] longestPeriods(int lowThreshold, int highThreshold, int k) {
+        if (k <= 0 || lowThreshold > highThreshold) {
+            return new int[0][];
+        }
+        long[] prefix = levels[0];
+        // Heap keys: length << 32 | (Integer.MAX_VALUE - start), so longer and then earlier wins
+        long[] heap = new long[days];
+        int size = 0;
+        for (int start = 0; start < days; start++) {
+            int end = lastIndex(start + 1, days, prefix[start] + lowThreshold, prefix[start] + highThreshold);
+            if (end >= 0) {
+                heap[size++] = (long) (end - start) << 32 | (Integer.MAX_VALUE - start);
+            }
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(heap, size, i);
+        }
+
+        int[][] longest = new int[Math.min(k, size)][];
+        int found = 0;
+        while (found < k && size > 0) {
+            long top = heap[0];
+            int start = Integer.MAX_VALUE - (int) top;
+            int endPrefix = start + (int) (top >>> 32);
+            // The period is start .. endPrefix - 1
+            if (found == longest.length) {
+                longest = Arrays.copyOf(longest, Math.min(k, 2 * found));
+            }
+            longest[found++] = new int[]{start, endPrefix - 1};
+            int next = lastIndex(start + 1, endPrefix - 1, prefix[start] + lowThreshold, prefix[start] + highThreshold);
+            if (next >= 0) {
+                heap[0] = (long) (next - start) << 32 | (Integer.MAX_VALUE - start);
+            } else {
+                heap[0] = heap[--size];
+            }
+            siftDown(heap, size, 0);
+        }
+        return found == longest.length ? longest : Arrays.copyOf(longest, found);
+    }
+
+    private static void siftDown(long[] heap, int size, int i) {
+        long value = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+
+    /**
+     * A largest set of pairwise disjoint anomaly periods, as {start, end} pairs in day order.
+     * Greedy by earliest end, which is optimal for disjoint intervals; among the periods ending
+     * there it keeps the shortest. O(n log^2 n).
+     */
+    public int[][] disjointPeriods(int lowThreshold, int highThreshold) {
+        if (lowThreshold > highThreshold) {
+            return new int[0][];
+        }
+        List<int[]> cover = new ArrayList<>();
+        long[] prefix = levels[0];
+        int free = 0; // first day not covered yet
+        for (int endPrefix = 1; endPrefix <= days; endPrefix++) {
+            int start = lastIndex(free, endPrefix - 1, prefix[endPrefix] - highThreshold, prefix[endPrefix] - lowThreshold);
+            if (start >= 0) {
+                cover.add(new int[]{start, endPrefix - 1});
+                free = endPrefix;
+            }
+        }
+        return cover.toArray(new int[0][]);
+    }
+
+    /**
+     * Smallest prefix index in [a, b] with P in [lo, hi], or -1.
+     */
+    int firstIndex(int a, int b, long lo, long hi) {
+        return a > b ? -1 : findIndex(levels.length - 1, 0, a, b, lo, hi, true);
+    }
+
+    /**
+     * Largest prefix index in [a, b] with P in [lo, hi], or -1.
+     */
+    int lastIndex(int a, int b, long lo, long hi) {
+        return a > b ? -1 : findIndex(levels.length - 1, 0, a, b, lo, hi, false);
+    }
+
+    private int findIndex(int d, int k, int a, int b, long lo, long hi, boolean first) {
+        int start = k << d;
+        int end = Math.min(start + (1 << d), days + 1) - 1;
+        if (end < a || start > b) {
+            return -1;
+        }
+        if (start >= a && end <= b && !runContains(levels[d], start, end + 1, lo, hi)) {
+            return -1;
+        }
+        if (d == 0) {
+            return start;
+        }
+        int near = findIndex(d - 1, first ? 2 * k : 2 * k + 1, a, b, lo, hi, first);
+        return near >= 0 ? near : findIndex(d - 1, first ? 2 * k + 1 : 2 * k, a, b, lo, hi, first);
+    }
+
+    /**
+     * True if the ascending run[from..to) has a value in [lo, hi].
+     */
+    private static boolean runContains(long[] run, int from, int to, long lo, long hi) {
+        // Binary search for the first value >= lo
+        int left = from;
+        int right = to;
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (run[mid] < lo) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left < to && run[left] <= hi;
+    }
+
+    // ============ TESTING ============
+    public static void main(String[] args) {
+        // Example 1 of the question under several bands and day ranges
+        int[] example = {3, -1, -4, 6, 2};
+        WeatherAnomalyIndex index = new WeatherAnomalyIndex(example);
+        System.out.println("Series: " + Arrays.toString(example));
+        System.out.println("[2, 5] all days: " + index.countAnomalyPeriods(2, 5));
+        System.out.println("[-1, 2] all days: " + index.countAnomalyPeriods(-1, 2));
+        System.out.println("[2, 5] days 1-4: " + index.countAnomalyPeriods(2, 5, 1, 5));
+        System.out.println("[2, 5] days 0-2: " + index.countAnomalyPeriods(2, 5, 0, 3));
+
+        // Random series, bands and day ranges against the brute force on the sub-series
+        Random random = new Random(20);
+        boolean agree = true;
+        for (int t = 0; t < 300 && agree; t++) {
+            int[] changes = new int[random.nextInt(80)];
+            for (int i = 0; i < changes.length; i++) {
+                changes[i] = random.nextInt(21) - 10;
+            }
+            WeatherAnomalyIndex randomIndex = new WeatherAnomalyIndex(changes);
+            for (int q = 0; q < 30 && agree; q++) {
+                int from = random.nextInt(changes.length + 1);
+                int to = from + random.nextInt(changes.length - from + 1);
+                int low = random.nextInt(41) - 20;
+                int high = low + random.nextInt(30) - 5;
+                long expected = WeatherAnomalyDetection.countAnomalyPeriodsBruteForce(
+                        Arrays.copyOfRange(changes, from, to), low, high);
+                agree = randomIndex.countAnomalyPeriods(low, high, from, to) == expected
+                        && randomIndex.countAnomalyPeriods(low, high)
+                           == WeatherAnomalyDetection.countAnomalyPeriods(changes, low, high);
+            }
+        }
+        System.out.println("Random queries: " + (agree ? "PASSED" : "FAILED"));
+
+        // Many bands over one long series: index against one-shot counts
+        int[] series = new int[200_000];
+        for (int i = 0; i < series.length; i++) {
+            series[i] = random.nextInt(21) - 10;
+        }
+        long start = System.nanoTime();
+        WeatherAnomalyIndex large = new WeatherAnomalyIndex(series);
+        long build = System.nanoTime() - start;
+        long indexed = 0;
+        long oneShot = 0;
+        long indexTime = 0;
+        long oneShotTime = 0;
+        for (int band = 0; band < 24; band++) {
+            long t0 = System.nanoTime();
+            indexed += large.countAnomalyPeriods(-band, band);
+            long t1 = System.nanoTime();
+            oneShot += WeatherAnomalyDetection.countAnomalyPeriods(series, -band, band);
+            long t2 = System.nanoTime();
+            indexTime += t1 - t0;
+            oneShotTime += t2 - t1;
+        }
+        System.out.printf("24 bands over %d days: same counts %s, build %d ms, indexed %d ms, one-shot %d ms%n",
+                series.length, indexed == oneShot, build / 1_000_000, indexTime / 1_000_000, oneShotTime / 1_000_000);
+
+        // The periods themselves on example 1
+        System.out.print("\nPeriods in [2, 5]:");
+        PeriodCursor cursor = index.periods(2, 5);
+        while (cursor.next()) {
+            System.out.print(" [" + cursor.start() + ", " + cursor.end() + "]");
+        }
+        System.out.println();
+        System.out.println("Two longest: " + Arrays.deepToString(index.longestPeriods(2, 5, 2)));
+        System.out.println("Disjoint: " + Arrays.deepToString(index.disjointPeriods(2, 5)));
+
+        // Cursor, pages, longest and disjoint periods against the full list
+        boolean periodsAgree = true;
+        for (int t = 0; t < 300 && periodsAgree; t++) {
+            int[] changes = new int[random.nextInt(60)];
+            for (int i = 0; i < changes.length; i++) {
+                changes[i] = random.nextInt(11) - 5;
+            }
+            int low = random.nextInt(21) - 10;
+            int high = low + random.nextInt(12) - 2;
+            WeatherAnomalyIndex randomIndex = new WeatherAnomalyIndex(changes);
+            List<int[]> all = allPeriods(changes, low, high);
+
+            List<int[]> paged = new ArrayList<>();
+            PeriodCursor pages = randomIndex.periods(low, high);
+            int[] starts = new int[7];
+            int[] ends = new int[7];
+            for (int filled; (filled = pages.nextPage(starts, ends)) > 0; ) {
+                for (int i = 0; i < filled; i++) {
+                    paged.add(new int[]{starts[i], ends[i]});
+                }
+            }
+            periodsAgree = Arrays.deepEquals(paged.toArray(), all.toArray());
+
+            List<int[]> byLength = new ArrayList<>(all);
+            byLength.sort((x, y) -> x[1] - x[0] != y[1] - y[0] ? (y[1] - y[0]) - (x[1] - x[0]) : x[0] - y[0]);
+            int k = random.nextInt(10);
+            periodsAgree &= Arrays.deepEquals(randomIndex.longestPeriods(low, high, k),
+                    byLength.subList(0, Math.min(k, byLength.size())).toArray());
+
+            // Disjoint periods: valid, non-overlapping and as many as interval scheduling allows
+            int[][] disjoint = randomIndex.disjointPeriods(low, high);
+            int previousEnd = -1;
+            for (int[] period : disjoint) {
+                periodsAgree &= period[0] > previousEnd && all.stream().anyMatch(p -> Arrays.equals(p, period));
+                previousEnd = period[1];
+            }
+            List<int[]> byEnd = new ArrayList<>(all);
+            byEnd.sort((x, y) -> x[1] - y[1]);
+            int best = 0;
+            previousEnd = -1;
+            for (int[] period : byEnd) {
+                if (period[0] > previousEnd) {
+                    best++;
+                    previousEnd = period[1];
+                }
+            }
+            periodsAgree &= disjoint.length == best;
+        }
+        System.out.println("Random periods: " + (periodsAgree ? "PASSED" : "FAILED"));
+
+        // Paging through a quadratic number of periods without listing them
+        PeriodCursor many = large.periods(-2, 2);
+        int[] starts = new int[1024];
+        int[] ends = new int[1024];
+        long paged = 0;
+        for (int page = 0; page < 1000; page++) {
+            paged += many.nextPage(starts, ends);
+        }
+        System.out.println("First " + paged + " periods of " + large.countAnomalyPeriods(-2, 2)
+                + " paged, now at day " + many.start());
+        System.out.println("Longest over 200000 days: " + Arrays.deepToString(large.longestPeriods(-2, 2, 3))
+                + ", disjoint periods: " + large.disjointPeriods(-2, 2).length);
+    }
+
+    /**
+     * Every anomaly period as {start, end}, in index order, by the double loop.
+     */
+    private static List<int[]> allPeriods(int[] changes, int low, int high) {
+        List<int[]> periods = new ArrayList<>();
+        for (int start = 0; start < changes.length; start++) {
+            long sum = 0;
+            for (int end = start; end < changes.length; end++) {
+                sum += changes[end];
+                if (sum >= low && sum <= high) {
+                    periods.add(new int[]{start, end});
+                }
+            }
+        }
+        return periods;
+    }
+}
+
+/*
+ * -----OUTPUT------
+Series: [3, -1, -4, 6, 2]
+[2, 5] all days: 7
+[-1, 2] all days: 5
+[2, 5] days 1-4: 4
+[2, 5] days 0-2: 2
+Random queries: PASSED
+24 bands over 200000 days: same counts true, build 43 ms, indexed 309 ms, one-shot 562 ms
+
+Periods in [2, 5]: [0, 0] [0, 1] [0, 3] [1, 4] [2, 3] [2, 4] [4, 4]
+Two longest: [[0, 3], [1, 4]]
+Disjoint: [[0, 0], [2, 3], [4, 4]]
+Random periods: PASSED
+First 1024000 periods of 35829585 paged, now at day 3040
+Longest over 200000 days: [[103656, 199820], [103657, 199820], [103656, 199815]], disjoint periods: 78389
+ */
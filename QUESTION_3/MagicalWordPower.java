@@ -29,6 +29,14 @@
 // The product is 5 × 7 = 35.
 
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
 //solution
 public class MagicalWordPower {
 
@@ -36,10 +44,438 @@ public class MagicalWordPower {
      * Finds the maximum product of lengths of two non-overlapping magical words
      * (odd-length palindromes) in the manuscript M.
      *
+     * Linear time: Manacher's algorithm gives the longest odd palindrome around every center.
+     * The longest palindrome ending exactly at each index then follows from one right-to-left
+     * sweep (a palindrome of length L ending at e + 1 contains one of length L - 2 ending at e,
+     * around the same center), and symmetrically for starts; two more sweeps turn them into
+     * "ending at or before i" and "starting at or after i". The product is a long, since two
+     * palindromes of a long manuscript overflow an int.
+     *
      * @param M the manuscript string
      * @return maximum product, or 0 if no two non-overlapping magical words exist
      */
-    public static int maxPowerCombination(String M) {
+    public static long maxPowerCombination(String M) {
+        if (M == null || M.length() < 2) {
+            return 0;
+        }
+
+        int n = M.length();
+        int[] radius = manacherOddRadii(M);
+        int[] leftMax = new int[n];  // max palindrome length ending at i, then ending <= i
+        int[] rightMax = new int[n]; // max palindrome length starting at i, then starting >= i
+
+        // Longest palindrome around each center, at its two ends
+        for (int center = 0; center < n; center++) {
+            int length = 2 * radius[center] - 1;
+            int end = center + radius[center] - 1;
+            int start = center - radius[center] + 1;
+            if (length > leftMax[end]) {
+                leftMax[end] = length;
+            }
+            if (length > rightMax[start]) {
+                rightMax[start] = length;
+            }
+        }
+
+        // Shrink palindromes by one letter at each side to reach the other ends
+        for (int i = n - 2; i >= 0; i--) {
+            leftMax[i] = Math.max(leftMax[i], leftMax[i + 1] - 2);
+        }
+        for (int i = 1; i < n; i++) {
+            rightMax[i] = Math.max(rightMax[i], rightMax[i - 1] - 2);
+        }
+
+        // Ending at or before i, starting at or after i
+        for (int i = 1; i < n; i++) {
+            leftMax[i] = Math.max(leftMax[i], leftMax[i - 1]);
+        }
+        for (int i = n - 2; i >= 0; i--) {
+            rightMax[i] = Math.max(rightMax[i], rightMax[i + 1]);
+        }
+
+        // Try every split point between i and i+1
+        long maxProduct = 0;
+        for (int i = 0; i < n - 1; i++) {
+            maxProduct = Math.max(maxProduct, (long) leftMax[i] * rightMax[i + 1]);
+        }
+        return maxProduct;
+    }
+
+    /**
+     * Manacher's algorithm for odd palindromes: radius[i] is the largest r such that
+     * M[i - r + 1 .. i + r - 1] is a palindrome. Reuses the mirror of i inside the rightmost
+     * palindrome found so far, so the total number of character comparisons is O(n).
+     */
+    static int[] manacherOddRadii(String M) {
+        int n = M.length();
+        int[] radius = new int[n];
+        int left = 0;   // rightmost palindrome found so far is M[left .. right - 1]
+        int right = 0;
+        for (int i = 0; i < n; i++) {
+            int r = i < right ? Math.min(radius[left + right - 1 - i], right - i) : 1;
+            while (i - r >= 0 && i + r < n && M.charAt(i - r) == M.charAt(i + r)) {
+                r++;
+            }
+            radius[i] = r;
+            if (i + r > right) {
+                left = i - r + 1;
+                right = i + r;
+            }
+        }
+        return radius;
+    }
+
+    /**
+     * Same as maxPowerCombination(String) for a text of single-byte characters (ASCII, a genome),
+     * read between the buffer's position and limit, which are left unchanged. The buffer can be a
+     * memory-mapped file, so the text never becomes a String.
+     *
+     * Working memory is off-heap. For n characters, of which s are centers of a palindrome
+     * longer than 508 letters (radius 255 or more), it takes at most about
+     *     1.125 n + w * s + 1.02 n bytes,
+     * where w = 3 below 2^25 characters and 4 below 2^33:
+     * - radii: one byte per center, with 255 standing for "look it up in the spill", plus 8 bytes
+     *   per 64 centers counting the spills before them, so any radius is found in O(1);
+     * - spill: w bytes for each of the s long radii;
+     * - steps of pass 2: two varints per step, bounded by n + (n + n / 2) / 128 bytes in total.
+     * Ordinary text has few long palindromes and few steps, so it stays near 1.13 bytes per
+     * character; a run like "aaaa..." is the worst case, about 2 + w bytes per character. Each
+     * column is allocated in chunks as it fills.
+     * Three sequential passes:
+     * 1. Manacher forward, writing the radii.
+     * 2. Backward: the longest palindrome starting at i comes from the largest center c >= i
+     *    whose palindrome reaches back to i, and that center only moves left as i does. Record
+     *    where the running maximum (best starting at or after i) grows.
+     * 3. Forward, symmetrically for the best ending at or before i. The product only needs to be
+     *    tried where that maximum grows, since the right-hand best only shrinks with i. The steps
+     *    are read back in the reverse of the order pass 2 wrote them.
+     * @throws ArithmeticException if the product does not fit in a long (over about 6 * 10^9 characters)
+     */
+    public static long maxPowerCombination(ByteBuffer text) {
+        return maxPowerCombination(new Segments(new ByteBuffer[] {text}, text.position(), 31),
+                text.limit() - text.position());
+    }
+
+    /**
+     * maxPowerCombination(ByteBuffer) over a file mapped read-only, in segments of 1 GiB so that
+     * files of any size can be read.
+     */
+    public static long maxPowerCombination(Path file) throws IOException {
+        return maxPowerCombination(file, SEGMENT_BITS);
+    }
+
+    // Size of one mapping of maxPowerCombination(Path), as a power of two
+    static final int SEGMENT_BITS = 30;
+
+    /**
+     * maxPowerCombination(Path) with mappings of 2^segmentBits bytes.
+     */
+    static long maxPowerCombination(Path file, int segmentBits) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long segment = 1L << segmentBits;
+            ByteBuffer[] parts = new ByteBuffer[(int) ((size + segment - 1) >>> segmentBits)];
+            for (int k = 0; k < parts.length; k++) {
+                long from = (long) k << segmentBits;
+                parts[k] = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(segment, size - from));
+            }
+            return maxPowerCombination(new Segments(parts, 0, segmentBits), size);
+        }
+    }
+
+    private static long maxPowerCombination(Segments text, long n) {
+        if (n < 2) {
+            return 0;
+        }
+
+        // Pass 1: odd radii
+        Radii radius = new Radii(n);
+        Radii.Cursor mirror = radius.cursor();
+        long left = 0;   // rightmost palindrome found so far is text[left .. right - 1]
+        long right = 0;
+        for (long i = 0; i < n; i++) {
+            long r = i < right ? mirror.get(left + right - 1 - i, right - i) : 1;
+            while (i - r >= 0 && i + r < n && text.get(i - r) == text.get(i + r)) {
+                r++;
+            }
+            radius.append(r);
+            if (i + r > right) {
+                left = i - r + 1;
+                right = i + r;
+            }
+        }
+
+        // Pass 2: best palindrome starting at or after i, kept only where it grows (positions
+        // descending, lengths ascending). Each step is written as its distance from the previous
+        // one, starting from position n and half length -1; lengths are odd and stored halved.
+        long maxSteps = (n + 1) / 2;
+        Steps steps = new Steps(2 * maxSteps + (n + maxSteps) / 128 + 2);
+        long stepPosition = n;
+        long stepHalf = -1;
+        Radii.Cursor cursor = radius.cursor();
+        long center = n - 1;
+        for (long i = n - 1; i >= 0; i--) {
+            while (center - cursor.get(center) + 1 > i) {
+                center--;
+            }
+            long half = center - i; // length 2 * half + 1
+            if (half > stepHalf) {
+                steps.write(stepPosition - i);
+                steps.write(half - stepHalf);
+                stepPosition = i;
+                stepHalf = half;
+            }
+        }
+
+        // Pass 3: best palindrome ending at or before i, times the best starting after i. The
+        // current step is the one with the smallest position >= i + 1.
+        long maxProduct = 0;
+        long bestEnd = 0;
+        cursor = radius.cursor();
+        center = 0;
+        for (long i = 0; i < n - 1; i++) {
+            while (center + cursor.get(center) - 1 < i) {
+                center++;
+            }
+            long length = 2 * (i - center) + 1;
+            if (length > bestEnd) {
+                bestEnd = length;
+                while (stepPosition <= i) {
+                    stepHalf -= steps.readLast();
+                    stepPosition += steps.readLast();
+                }
+                if (stepPosition == n) {
+                    break; // nothing starts after i any more
+                }
+                maxProduct = Math.max(maxProduct, Math.multiplyExact(bestEnd, 2 * stepHalf + 1));
+            }
+        }
+        return maxProduct;
+    }
+
+    /**
+     * The text as consecutive buffers of 2^bits bytes each (the last one shorter), read by long
+     * index. The first buffer starts at offset, the others at 0.
+     */
+    static final class Segments {
+        private final ByteBuffer[] parts;
+        private final long offset;
+        private final int bits;
+        private final long mask;
+
+        Segments(ByteBuffer[] parts, long offset, int bits) {
+            this.parts = parts;
+            this.offset = offset;
+            this.bits = bits;
+            this.mask = (1L << bits) - 1;
+        }
+
+        byte get(long index) {
+            long at = index + offset;
+            return parts[(int) (at >>> bits)].get((int) (at & mask));
+        }
+    }
+
+    /**
+     * Bytes addressed by long index, in direct buffers of CHUNK bytes (the last one shorter)
+     * allocated on the first write into them. The total never exceeds capacity.
+     */
+    static final class OffHeapBytes {
+        static final int CHUNK_BITS = 24;
+        static final int CHUNK = 1 << CHUNK_BITS; // a multiple of 64, so no radius block is split
+
+        private final long capacity;
+        private final ByteBuffer[] chunks;
+
+        OffHeapBytes(long capacity) {
+            this.capacity = capacity;
+            this.chunks = new ByteBuffer[(int) ((capacity + CHUNK - 1) >>> CHUNK_BITS)];
+        }
+
+        void put(long index, byte value) {
+            chunk(index).put((int) (index & (CHUNK - 1)), value);
+        }
+
+        byte get(long index) {
+            return chunks[(int) (index >>> CHUNK_BITS)].get((int) (index & (CHUNK - 1)));
+        }
+
+        /** index a multiple of 8; big-endian, so the byte at index is the most significant. */
+        void putLong(long index, long value) {
+            chunk(index).putLong((int) (index & (CHUNK - 1)), value);
+        }
+
+        long getLong(long index) {
+            return chunks[(int) (index >>> CHUNK_BITS)].getLong((int) (index & (CHUNK - 1)));
+        }
+
+        /** The chunk holding index, for reading several bytes of it at once. */
+        ByteBuffer chunkOf(long index) {
+            return chunks[(int) (index >>> CHUNK_BITS)];
+        }
+
+        private ByteBuffer chunk(long index) {
+            ByteBuffer chunk = chunks[(int) (index >>> CHUNK_BITS)];
+            if (chunk == null) {
+                long first = index & -CHUNK;
+                chunk = ByteBuffer.allocateDirect((int) Math.min(CHUNK, capacity - first));
+                chunks[(int) (index >>> CHUNK_BITS)] = chunk;
+            }
+            return chunk;
+        }
+    }
+
+    /**
+     * Manacher radii, appended in order: one byte per center holding the radius, or SPILLED
+     * for radii of 255 and up, whose value goes to the spill column at the rank of the center
+     * among spilled ones. The rank is the count stored for the center's block of 64 plus the
+     * SPILLED bytes before it in the block, counted eight at a time.
+     */
+    static final class Radii {
+        static final int SPILLED = 0xFF;
+        private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+        private final OffHeapBytes bytes;     // min(radius, SPILLED) per center
+        private final OffHeapBytes blocks;    // per 64 centers, spills before the block (8 bytes)
+        private final OffHeapBytes spill;     // radii of SPILLED centers, width bytes each
+        private final int width;
+        private long size;
+        private long spilled;
+
+        Radii(long n) {
+            long maxRadius = (n + 1) / 2;
+            this.width = Math.max(1, (71 - Long.numberOfLeadingZeros(maxRadius)) / 8);
+            this.bytes = new OffHeapBytes((n + 63) & -64); // whole blocks, read a long at a time
+            this.blocks = new OffHeapBytes(((n + 63) >>> 6) * 8);
+            this.spill = new OffHeapBytes(n * width);
+        }
+
+        void append(long radius) {
+            if ((size & 63) == 0) {
+                blocks.putLong(size >>> 3, spilled);
+            }
+            if (radius < SPILLED) {
+                bytes.put(size, (byte) radius);
+            } else {
+                bytes.put(size, (byte) SPILLED);
+                long at = spilled++ * width;
+                for (int b = width - 1; b >= 0; b--, radius >>>= 8) {
+                    spill.put(at + b, (byte) radius);
+                }
+            }
+            size++;
+        }
+
+        /**
+         * Reads radii at a center that mostly stays put or moves by one, as all three passes do,
+         * carrying the spill rank along instead of counting it again.
+         */
+        Cursor cursor() {
+            return new Cursor();
+        }
+
+        final class Cursor {
+            private long center = -2; // last center read from the spill
+            private long rank;        // SPILLED centers before it
+            private long last = -1;   // last center read by get(at), and its radius
+            private long lastRadius;
+
+            long get(long at) {
+                if (at != last) {
+                    lastRadius = get(at, Long.MAX_VALUE);
+                    last = at;
+                }
+                return lastRadius;
+            }
+
+            /** min(radius of at, cap), without reading the spill when the byte already decides it. */
+            long get(long at, long cap) {
+                int stored = bytes.get(at) & 0xFF;
+                if (stored < SPILLED || cap <= SPILLED) {
+                    return Math.min(stored, cap);
+                }
+                if (at == center + 1) {
+                    rank++; // center itself was SPILLED
+                } else if (at == center - 1) {
+                    rank--; // and so is at
+                } else if (at != center) {
+                    rank = rank(at);
+                }
+                center = at;
+                return Math.min(spilledRadius(rank), cap);
+            }
+        }
+
+        private long spilledRadius(long rank) {
+            long at = rank * width;
+            long radius = 0;
+            for (int b = 0; b < width; b++) {
+                radius = radius << 8 | spill.get(at + b) & 0xFF;
+            }
+            return radius;
+        }
+
+        /** Number of SPILLED centers before center. */
+        private long rank(long center) {
+            long block = center & -64;
+            long rank = blocks.getLong(block >>> 3);
+            ByteBuffer chunk = bytes.chunkOf(block);
+            int from = (int) (block & (OffHeapBytes.CHUNK - 1));
+            int count = (int) (center - block);
+            for (int at = 0; at < count; at += 8) {
+                // High bit of each byte of found is set where the word has a SPILLED byte
+                long inverted = ~chunk.getLong(from + at);
+                long found = ~((inverted & LOW_BITS) + LOW_BITS | inverted | LOW_BITS);
+                if (count - at < 8) {
+                    found &= -1L << (64 - 8 * (count - at));
+                }
+                rank += Long.bitCount(found);
+            }
+            return rank;
+        }
+    }
+
+    /**
+     * Non-negative longs written in order and read back last first, as varints of 7 bits per
+     * byte with the high bit set on every byte but the last of each value: the byte before a
+     * value's last byte is either another of its own bytes or the last byte of the value before.
+     */
+    static final class Steps {
+        private final OffHeapBytes bytes;
+        private long size;
+
+        Steps(long capacity) {
+            this.bytes = new OffHeapBytes(capacity);
+        }
+
+        void write(long value) {
+            while (value >= 0x80) {
+                bytes.put(size++, (byte) (value | 0x80));
+                value >>>= 7;
+            }
+            bytes.put(size++, (byte) value);
+        }
+
+        /** Removes and returns the last value written. */
+        long readLast() {
+            long first = size - 1;
+            while (first > 0 && bytes.get(first - 1) < 0) {
+                first--;
+            }
+            long value = 0;
+            for (long at = size - 1; at >= first; at--) {
+                value = value << 7 | bytes.get(at) & 0x7F;
+            }
+            size = first;
+            return value;
+        }
+    }
+
+    /**
+     * The original expansion around every center, O(n^2) on strings like "aaaa...", with the
+     * product widened to long; kept to check maxPowerCombination.
+     */
+    static long maxPowerCombinationByExpansion(String M) {
         if (M == null || M.length() < 2) {
             return 0;
         }
@@ -75,12 +511,12 @@ public class MagicalWordPower {
         }
 
         // Try every split point between i and i+1
-        int maxProduct = 0;
+        long maxProduct = 0;
         for (int i = 0; i < n - 1; i++) {
             int leftPart = leftMax[i];
             int rightPart = rightMax[i + 1];
             if (leftPart > 0 && rightPart > 0) {
-                int product = leftPart * rightPart;
+                long product = (long) leftPart * rightPart;
                 if (product > maxProduct) {
                     maxProduct = product;
                 }
@@ -93,7 +529,7 @@ public class MagicalWordPower {
     public static void main(String[] args) {
         // Example 1(Test case 1)
         System.out.println("test case 1: M = \"xyzyxabc\"");
-        int result1 = maxPowerCombination("xyzyxabc");
+        long result1 = maxPowerCombination("xyzyxabc");
         System.out.println("Result: " + result1);
         System.out.println("Expected: 5");
         System.out.println("Pass: " + (result1 == 5 ? "Yes" : "No"));
@@ -101,7 +537,7 @@ public class MagicalWordPower {
 
         // Example 2 (Test case 2)
         System.out.println("test case 2: M = \"levelwowracecar\"");
-        int result2 = maxPowerCombination("levelwowracecar");
+        long result2 = maxPowerCombination("levelwowracecar");
         System.out.println("Result: " + result2);
         System.out.println("Expected: 35");
         System.out.println("Pass: " + (result2 == 35 ? "Yes" : "No"));
@@ -109,7 +545,7 @@ public class MagicalWordPower {
 
         // Test Case: No two magical words / Empty or single char
         System.out.println("Test Case No: M = \"a\" (single character string)"); 
-        int resultNo = maxPowerCombination("a");
+        long resultNo = maxPowerCombination("a");
         System.out.println("Result: " + resultNo);
         System.out.println("Expected: 0");
         System.out.println("Pass: " + (resultNo == 0 ? "Yes" : "No"));
@@ -117,12 +553,125 @@ public class MagicalWordPower {
 
         // Test Case 4: Only one palindrome exists (whole string), expected output: 0
         System.out.println("Test Case 4: M = \"aba\" (only one palindrome)");
-        int resultNo2 = maxPowerCombination("aba");
+        long resultNo2 = maxPowerCombination("aba");
         System.out.println("Result: " + resultNo2);
         System.out.println("Expected: 0");
         System.out.println("Pass: " + (resultNo2 == 0 ? "Yes" : "No"));
         System.out.println();
 
+        // Test Case 5: Manacher against the expansion on random and repetitive strings
+        java.util.Random random = new java.util.Random(23);
+        boolean agree = true;
+        for (int t = 0; t < 5000 && agree; t++) {
+            char[] text = new char[random.nextInt(40)];
+            int alphabet = 1 + random.nextInt(4);
+            for (int i = 0; i < text.length; i++) {
+                text[i] = (char) ('a' + random.nextInt(alphabet));
+            }
+            String manuscript = new String(text);
+            if (maxPowerCombination(manuscript) != maxPowerCombinationByExpansion(manuscript)) {
+                System.out.println("Mismatch on \"" + manuscript + "\"");
+                agree = false;
+            }
+        }
+        System.out.println("Test Case 5: random strings " + (agree ? "PASSED" : "FAILED"));
+        System.out.println();
+
+        // Test Case 6: long palindromes, whose product does not fit in an int
+        int half = 100_001;
+        String longRun = "a".repeat(half) + "b" + "a".repeat(half);
+        long start = System.nanoTime();
+        long resultLong = maxPowerCombination(longRun);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Test Case 6: M = 100001 x 'a' + 'b' + 100001 x 'a'");
+        System.out.println("Result: " + resultLong);
+        System.out.println("Expected: " + (long) half * half);
+        System.out.println("Pass: " + (resultLong == (long) half * half ? "Yes" : "No")
+                + (millis < 1000 ? " (under a second)" : " (" + millis + " ms)"));
+        System.out.println();
+
+        // Test Case 7: byte buffers (heap, direct, mapped file) against the String version
+        boolean bytesAgree = true;
+        for (int t = 0; t < 3000 && bytesAgree; t++) {
+            char[] text = new char[random.nextInt(600)];
+            int alphabet = 1 + random.nextInt(4);
+            for (int i = 0; i < text.length; i++) {
+                text[i] = (char) ('a' + random.nextInt(alphabet));
+            }
+            String manuscript = new String(text);
+            byte[] bytes = ("xx" + manuscript + "yy").getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+            ByteBuffer window = ByteBuffer.wrap(bytes, 2, manuscript.length());
+            bytesAgree = maxPowerCombination(window) == maxPowerCombination(manuscript) && window.position() == 2;
+            if (!bytesAgree) {
+                System.out.println("Mismatch on \"" + manuscript + "\"");
+            }
+        }
+        ByteBuffer direct = ByteBuffer.allocateDirect(longRun.length());
+        direct.put(longRun.getBytes(java.nio.charset.StandardCharsets.US_ASCII)).flip();
+        bytesAgree &= maxPowerCombination(direct) == resultLong;
+        try {
+            Path file = java.nio.file.Files.createTempFile("manuscript", ".txt");
+            java.nio.file.Files.writeString(file, "levelwowracecar");
+            bytesAgree &= maxPowerCombination(file) == 35;
+            // Small mappings, so that palindromes and comparisons cross from one to the next
+            for (int t = 0; t < 200 && bytesAgree; t++) {
+                char[] text = new char[random.nextInt(5000)];
+                int alphabet = 1 + random.nextInt(3);
+                for (int i = 0; i < text.length; i++) {
+                    text[i] = (char) ('a' + random.nextInt(alphabet));
+                }
+                String manuscript = new String(text);
+                java.nio.file.Files.writeString(file, manuscript);
+                bytesAgree = maxPowerCombination(file, 6 + random.nextInt(6)) == maxPowerCombination(manuscript);
+                if (!bytesAgree) {
+                    System.out.println("Mismatch on a mapped \"" + manuscript + "\"");
+                }
+            }
+            java.nio.file.Files.writeString(file, longRun);
+            bytesAgree &= maxPowerCombination(file, 12) == resultLong;
+            java.nio.file.Files.delete(file);
+        } catch (IOException e) {
+            System.out.println("Temporary file: " + e);
+            bytesAgree = false;
+        }
+        System.out.println("Test Case 7: byte buffers " + (bytesAgree ? "PASSED" : "FAILED"));
+        System.out.println();
+
+        // Test Case 8: a long single-letter run through a mapped file, where nearly every radius
+        // spills and pass 2 takes a step at every other position: the worst case for memory
+        int run = 20_000_001;
+        boolean runPassed;
+        try {
+            Path file = java.nio.file.Files.createTempFile("manuscript", ".txt");
+            byte[] block = new byte[1 << 16];
+            Arrays.fill(block, (byte) 'a');
+            try (java.io.OutputStream out = java.nio.file.Files.newOutputStream(file)) {
+                for (int written = 0; written < run; written += block.length) {
+                    out.write(block, 0, Math.min(block.length, run - written));
+                }
+            }
+            long expected = 0;
+            for (long first = 1; first < run; first += 2) {
+                long second = run - first;
+                second -= (second & 1) == 0 ? 1 : 0;
+                expected = Math.max(expected, first * second);
+            }
+            start = System.nanoTime();
+            long resultRun = maxPowerCombination(file);
+            millis = (System.nanoTime() - start) / 1_000_000;
+            java.nio.file.Files.delete(file);
+            runPassed = resultRun == expected;
+            System.out.println("Test Case 8: M = " + run + " x 'a' from a mapped file");
+            System.out.println("Result: " + resultRun);
+            System.out.println("Expected: " + expected);
+        } catch (IOException e) {
+            System.out.println("Temporary file: " + e);
+            runPassed = false;
+            millis = 0;
+        }
+        System.out.println("Pass: " + (runPassed ? "Yes" : "No") + " (" + millis + " ms)");
+        System.out.println();
+
     }
 
 }
@@ -150,4 +699,18 @@ public class MagicalWordPower {
 // Expected: 0
 // Pass: No
 
+// Test Case 5: random strings PASSED
+
+// Test Case 6: M = 100001 x 'a' + 'b' + 100001 x 'a'
+// Result: 10000200001
+// Expected: 10000200001
+// Pass: Yes (under a second)
+
+// Test Case 7: byte buffers PASSED
+
+// Test Case 8: M = 20000001 x 'a' from a mapped file
+// Result: 99999999999999
+// Expected: 99999999999999
+// Pass: Yes (1870 ms)
+
 
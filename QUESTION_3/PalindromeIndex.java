@@ -0,0 +1,382 @@
+// Palindrome Index
+// ================
+// MagicalWordPower.maxPowerCombination scans the whole manuscript on every call. When the same
+// large text is asked many questions (best product inside a range, longest magical word in a
+// window, how many distinct palindromes there are), this index builds the palindromic structure
+// once and answers from it:
+// - Manacher radii with a sparse table for range maximum: the longest odd palindrome inside
+//   any window [from, to) is a binary search over the radius, O(log n) per query.
+// - An eertree (palindromic tree), one node per distinct palindrome, built in O(n) with a
+//   hash table for its edges: distinct palindromes of the text and of every prefix.
+// The best product of two non-overlapping magical words inside a window is a branch and bound
+// over the split point. Left of the split the best length only grows and right of it only
+// shrinks, so a range of splits [a, b] is bounded by best(from, b) * best(a + 1, to) and pruned
+// when that cannot beat the best product found. Typical text converges after a few dozen
+// window queries; highly repetitive windows ("aaaa...") prune least and cost O(m log n).
+// Building takes O(n log n) for the sparse table, O(n) for the rest.
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public final class PalindromeIndex {
+
+    // Split ranges this short are evaluated one split at a time
+    static final int SCAN_THRESHOLD = 8;
+
+    private final String text;
+    private final int n;
+
+    // radius[i]: text[i - r + 1 .. i + r - 1] is the longest odd palindrome centered at i
+    private final int[] radius;
+
+    // maxRadius[j][i] = max(radius[i .. i + 2^j - 1])
+    private final int[][] maxRadius;
+
+    // Eertree results: distinct palindromes in text[0 .. i) for every i
+    private final int[] distinctInPrefix;
+    private final int[] distinctOddInPrefix;
+
+    public PalindromeIndex(String text) {
+        this.text = text;
+        this.n = text.length();
+        this.radius = MagicalWordPower.manacherOddRadii(text);
+
+        int levels = 1;
+        while ((1 << levels) <= n) {
+            levels++;
+        }
+        maxRadius = new int[levels][];
+        maxRadius[0] = radius;
+        for (int j = 1; j < levels; j++) {
+            int half = 1 << (j - 1);
+            int[] previous = maxRadius[j - 1];
+            int[] current = new int[n - (1 << j) + 1];
+            for (int i = 0; i < current.length; i++) {
+                current[i] = Math.max(previous[i], previous[i + half]);
+            }
+            maxRadius[j] = current;
+        }
+
+        distinctInPrefix = new int[n + 1];
+        distinctOddInPrefix = new int[n + 1];
+        buildEertree();
+    }
+
+    public int length() {
+        return n;
+    }
+
+    /**
+     * Length of the longest odd palindrome inside text[from .. to), 0 for an empty window.
+     * Binary search on the radius k: some center c in [from + k - 1, to - k] must have
+     * radius[c] >= k, which is one range-maximum lookup.
+     */
+    public int longestMagicalWord(int from, int to) {
+        checkWindow(from, to);
+        int lo = 0;                    // radius known to fit
+        int hi = (to - from + 1) / 2;  // largest radius the window could hold
+        while (lo < hi) {
+            int k = (lo + hi + 1) >>> 1;
+            if (rangeMaxRadius(from + k - 1, to - k) >= k) {
+                lo = k;
+            } else {
+                hi = k - 1;
+            }
+        }
+        return lo == 0 ? 0 : 2 * lo - 1;
+    }
+
+    /**
+     * Same as MagicalWordPower.maxPowerCombination(text.substring(from, to)).
+     */
+    public long maxPowerCombination(int from, int to) {
+        checkWindow(from, to);
+        if (to - from < 2) {
+            return 0;
+        }
+        // Split s puts the first word in [from, s] and the second in [s + 1, to)
+        long best = 0;
+        int[] stack = new int[128];
+        int top = 0;
+        stack[top++] = from;
+        stack[top++] = to - 2;
+        while (top > 0) {
+            int b = stack[--top];
+            int a = stack[--top];
+            long bound = (long) longestMagicalWord(from, b + 1) * longestMagicalWord(a + 1, to);
+            if (bound <= best) {
+                continue;
+            }
+            if (b - a < SCAN_THRESHOLD) {
+                for (int s = a; s <= b; s++) {
+                    best = Math.max(best, (long) longestMagicalWord(from, s + 1) * longestMagicalWord(s + 1, to));
+                }
+                continue;
+            }
+            int mid = (a + b) >>> 1;
+            best = Math.max(best, (long) longestMagicalWord(from, mid + 1) * longestMagicalWord(mid + 1, to));
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            // Right half first on the stack, so the left half is explored first
+            stack[top++] = mid + 1;
+            stack[top++] = b;
+            stack[top++] = a;
+            stack[top++] = mid - 1;
+        }
+        return best;
+    }
+
+    /**
+     * Same as MagicalWordPower.maxPowerCombination(text).
+     */
+    public long maxPowerCombination() {
+        return maxPowerCombination(0, n);
+    }
+
+    /** Number of distinct palindromic substrings (odd and even) of the text. */
+    public int distinctPalindromes() {
+        return distinctInPrefix[n];
+    }
+
+    /** Number of distinct odd palindromic substrings (magical words) of the text. */
+    public int distinctMagicalWords() {
+        return distinctOddInPrefix[n];
+    }
+
+    /** Number of distinct palindromic substrings of text[0 .. length). */
+    public int distinctPalindromesInPrefix(int length) {
+        checkWindow(0, length);
+        return distinctInPrefix[length];
+    }
+
+    /** Number of distinct odd palindromic substrings of text[0 .. length). */
+    public int distinctMagicalWordsInPrefix(int length) {
+        checkWindow(0, length);
+        return distinctOddInPrefix[length];
+    }
+
+    private void checkWindow(int from, int to) {
+        if (from < 0 || from > to || to > n) {
+            throw new IllegalArgumentException("Invalid window [" + from + ", " + to + ") of " + n + " characters");
+        }
+    }
+
+    /**
+     * max(radius[a .. b]), 0 if the range is empty.
+     */
+    private int rangeMaxRadius(int a, int b) {
+        if (a > b) {
+            return 0;
+        }
+        int j = 31 - Integer.numberOfLeadingZeros(b - a + 1);
+        return Math.max(maxRadius[j][a], maxRadius[j][b - (1 << j) + 1]);
+    }
+
+    /**
+     * Palindromic tree: node 0 is the root of length -1, node 1 the empty palindrome. Each node
+     * is a distinct palindrome; its suffix link is its longest proper palindromic suffix. Adding
+     * a character creates at most one node, so the tree has at most n + 2 nodes and is built in
+     * amortized O(n). Edges (node, character) -> child live in an open-addressing table.
+     */
+    private void buildEertree() {
+        int[] length = new int[n + 2];
+        int[] link = new int[n + 2];
+        length[0] = -1;
+        length[1] = 0;
+        link[0] = 0;
+        link[1] = 0;
+        int nodes = 2;
+        int odd = 0;
+        EdgeTable edges = new EdgeTable(n + 2);
+
+        int last = 1; // longest palindromic suffix of the text read so far
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            int parent = suffixExtendable(last, i, c, length, link);
+            int child = edges.get(parent, c);
+            if (child == 0) {
+                child = nodes++;
+                length[child] = length[parent] + 2;
+                if (length[child] == 1) {
+                    link[child] = 1;
+                } else {
+                    link[child] = edges.get(suffixExtendable(link[parent], i, c, length, link), c);
+                }
+                edges.put(parent, c, child);
+                if ((length[child] & 1) == 1) {
+                    odd++;
+                }
+            }
+            last = child;
+            distinctInPrefix[i + 1] = nodes - 2;
+            distinctOddInPrefix[i + 1] = odd;
+        }
+    }
+
+    /**
+     * Follows suffix links from node until c + palindrome + c ends at position i.
+     */
+    private int suffixExtendable(int node, int i, char c, int[] length, int[] link) {
+        while (true) {
+            int start = i - 1 - length[node];
+            if (start >= 0 && text.charAt(start) == c) {
+                return node;
+            }
+            node = link[node];
+        }
+    }
+
+    /**
+     * (node, character) -> child with linear probing; 0 means absent (node 0 is never a child).
+     */
+    static final class EdgeTable {
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        EdgeTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        int get(int node, char c) {
+            long key = (long) node << 16 | c;
+            for (int slot = hash(key); values[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return 0;
+        }
+
+        void put(int node, char c, int child) {
+            long key = (long) node << 16 | c;
+            int slot = hash(key);
+            while (values[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = child;
+        }
+
+        private int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32) & mask;
+        }
+    }
+
+    // ============ TESTING ============
+    public static void main(String[] args) {
+        // The examples of the question, on one index over both manuscripts
+        String both = "xyzyxabc" + "levelwowracecar";
+        PalindromeIndex index = new PalindromeIndex(both);
+        System.out.println("\"xyzyxabc\": " + index.maxPowerCombination(0, 8));
+        System.out.println("\"levelwowracecar\": " + index.maxPowerCombination(8, both.length()));
+        System.out.println("Longest magical word in \"levelwowracecar\": " + index.longestMagicalWord(8, both.length()));
+        System.out.println("Distinct palindromes: " + index.distinctPalindromes()
+                + ", of which magical words: " + index.distinctMagicalWords());
+
+        // Random texts and windows against MagicalWordPower and direct enumeration
+        Random random = new Random(24);
+        boolean agree = true;
+        for (int t = 0; t < 500 && agree; t++) {
+            char[] chars = new char[random.nextInt(60)];
+            int alphabet = 1 + random.nextInt(3);
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = (char) ('a' + random.nextInt(alphabet));
+            }
+            String text = new String(chars);
+            PalindromeIndex randomIndex = new PalindromeIndex(text);
+            for (int q = 0; q < 20 && agree; q++) {
+                int from = random.nextInt(text.length() + 1);
+                int to = from + random.nextInt(text.length() - from + 1);
+                String window = text.substring(from, to);
+                agree = randomIndex.maxPowerCombination(from, to) == MagicalWordPower.maxPowerCombinationByExpansion(window)
+                        && randomIndex.longestMagicalWord(from, to) == longestOddByExpansion(window);
+            }
+            int prefix = random.nextInt(text.length() + 1);
+            Set<String> all = new HashSet<>();
+            Set<String> odd = new HashSet<>();
+            for (int i = 0; i < prefix; i++) {
+                for (int j = i + 1; j <= prefix; j++) {
+                    String sub = text.substring(i, j);
+                    if (new StringBuilder(sub).reverse().toString().equals(sub)) {
+                        all.add(sub);
+                        if ((sub.length() & 1) == 1) {
+                            odd.add(sub);
+                        }
+                    }
+                }
+            }
+            agree &= randomIndex.distinctPalindromesInPrefix(prefix) == all.size()
+                    && randomIndex.distinctMagicalWordsInPrefix(prefix) == odd.size();
+            if (!agree) {
+                System.out.println("Mismatch on \"" + text + "\"");
+            }
+        }
+        System.out.println("Random windows: " + (agree ? "PASSED" : "FAILED"));
+
+        // Many window queries on a large text against recomputing each window
+        char[] genome = new char[1_000_000];
+        for (int i = 0; i < genome.length; i++) {
+            genome[i] = "ACGT".charAt(random.nextInt(4));
+        }
+        String large = new String(genome);
+        long start = System.nanoTime();
+        PalindromeIndex largeIndex = new PalindromeIndex(large);
+        long build = System.nanoTime() - start;
+        int queries = 200;
+        int[] froms = new int[queries];
+        int[] tos = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            froms[q] = random.nextInt(large.length() / 2);
+            tos[q] = froms[q] + 100_000 + random.nextInt(large.length() / 2 - 100_000);
+        }
+        long indexed = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            indexed += largeIndex.maxPowerCombination(froms[q], tos[q]);
+        }
+        long indexTime = System.nanoTime() - start;
+        long recomputed = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            recomputed += MagicalWordPower.maxPowerCombination(large.substring(froms[q], tos[q]));
+        }
+        long recomputeTime = System.nanoTime() - start;
+        System.out.printf("%d windows of 1,000,000 ACGT: same answers %s, build %d ms, indexed %d ms, recomputed %d ms%n",
+                queries, indexed == recomputed, build / 1_000_000, indexTime / 1_000_000, recomputeTime / 1_000_000);
+        System.out.println("Distinct palindromes: " + largeIndex.distinctPalindromes());
+    }
+
+    /**
+     * Longest odd palindrome of s by expanding around every center.
+     */
+    private static int longestOddByExpansion(String s) {
+        int longest = 0;
+        for (int center = 0; center < s.length(); center++) {
+            int r = 0;
+            while (center - r >= 0 && center + r < s.length() && s.charAt(center - r) == s.charAt(center + r)) {
+                r++;
+            }
+            longest = Math.max(longest, 2 * r - 1);
+        }
+        return longest;
+    }
+}
+
+/*
+ * -----OUTPUT------
+"xyzyxabc": 5
+"levelwowracecar": 35
+Longest magical word in "levelwowracecar": 7
+Distinct palindromes: 20, of which magical words: 20
+Random windows: PASSED
+200 windows of 1,000,000 ACGT: same answers true, build 163 ms, indexed 9 ms, recomputed 1038 ms
+Distinct palindromes: 3845
+ */
@@ -0,0 +1,65 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CryptarithmeticSolver on puzzles of growing letter count, solvable and unsolvable ones,
+ * sequentially and split across the common pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class CryptarithmBenchmark {
+
+    private static final MethodHandle IS_SOLVABLE = Solvers.staticMethod("CryptarithmeticSolver",
+            "isSolvable", boolean.class, String.class, String.class, String.class);
+    private static final MethodHandle SOLVER = Solvers.constructor("CryptarithmeticSolver",
+            String.class, String.class, String.class);
+    private static final MethodHandle SOLVE_PARALLEL = Solvers.instanceMethod("CryptarithmeticSolver",
+            "solveParallel", Map.class);
+
+    /** Puzzle as "addend+addend=sum": 6, 8, 9 and 10 distinct letters, the last one unsolvable. */
+    @Param({"TWO+TWO=FOUR", "SEND+MORE=MONEY", "CROSS+ROADS=DANGER", "ABCDE+FGHIJ=AAAAAA"})
+    public String puzzle;
+
+    private String first;
+    private String second;
+    private String sum;
+    private Object solver;
+
+    @Setup
+    public void setUp() throws Throwable {
+        String[] words = puzzle.split("[+=]");
+        first = words[0];
+        second = words[1];
+        sum = words[2];
+        solver = (Object) SOLVER.invokeExact(first, second, sum);
+    }
+
+    @Benchmark
+    public boolean solve() throws Throwable {
+        return (boolean) IS_SOLVABLE.invokeExact(first, second, sum);
+    }
+
+    @Benchmark
+    public Map<?, ?> solveParallel() throws Throwable {
+        return (Map<?, ?>) SOLVE_PARALLEL.invokeExact(solver);
+    }
+}
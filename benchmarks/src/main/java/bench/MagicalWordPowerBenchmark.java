@@ -0,0 +1,93 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MagicalWordPower.maxPowerCombination (Manacher, linear) against the original expansion around
+ * every center, on random text and on palindrome-heavy text where the expansion is at its worst.
+ * indexed asks the same question of a prebuilt PalindromeIndex, and bytes of the same text in a
+ * direct ByteBuffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MagicalWordPowerBenchmark {
+
+    private static final MethodHandle MAX_POWER = Solvers.staticMethod("MagicalWordPower",
+            "maxPowerCombination", long.class, String.class);
+    private static final MethodHandle EXPANSION = Solvers.staticMethod("MagicalWordPower",
+            "maxPowerCombinationByExpansion", long.class, String.class);
+    private static final MethodHandle BYTES = Solvers.staticMethod("MagicalWordPower",
+            "maxPowerCombination", long.class, ByteBuffer.class);
+    private static final MethodHandle INDEX = Solvers.constructor("PalindromeIndex", String.class);
+    private static final MethodHandle INDEXED = Solvers.instanceMethod("PalindromeIndex",
+            "maxPowerCombination", long.class);
+
+    /** Manuscript length. */
+    @Param({"1000", "10000"})
+    public int length;
+
+    /**
+     * "random" draws from 26 letters, "repetitive" from 2, which creates long palindromes, and
+     * "uniform" is a single letter repeated, the quadratic case of the expansion.
+     */
+    @Param({"random", "repetitive", "uniform"})
+    public String shape;
+
+    private String manuscript;
+    private Object index;
+    private ByteBuffer bytes;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Random random = new Random(31);
+        int alphabet = shape.equals("random") ? 26 : shape.equals("repetitive") ? 2 : 1;
+        char[] text = new char[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = (char) ('a' + random.nextInt(alphabet));
+        }
+        manuscript = new String(text);
+        index = (Object) INDEX.invokeExact(manuscript);
+        bytes = ByteBuffer.allocateDirect(length);
+        bytes.put(manuscript.getBytes(StandardCharsets.US_ASCII)).flip();
+    }
+
+    @Benchmark
+    public long maxPower() throws Throwable {
+        return (long) MAX_POWER.invokeExact(manuscript);
+    }
+
+    @Benchmark
+    public long bytes() throws Throwable {
+        return (long) BYTES.invokeExact(bytes);
+    }
+
+    @Benchmark
+    public long indexed() throws Throwable {
+        return (long) INDEXED.invokeExact(index);
+    }
+
+    @Benchmark
+    public long expansion() throws Throwable {
+        return (long) EXPANSION.invokeExact(manuscript);
+    }
+}
@@ -0,0 +1,39 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PatternSubsequenceCounter.maxSubsequenceCount for growing repetition counts of p1.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternSubsequenceBenchmark {
+
+    private static final MethodHandle COUNT = Solvers.staticMethod("PatternSubsequenceCounter",
+            "maxSubsequenceCount", int.class, String.class, long.class, String.class, long.class);
+
+    /** Number of times p1 is repeated. */
+    @Param({"1000", "100000"})
+    public long repeats;
+
+    @Benchmark
+    public long count() throws Throwable {
+        return (int) COUNT.invokeExact("abcdefghij", repeats, "jab", 1L);
+    }
+}
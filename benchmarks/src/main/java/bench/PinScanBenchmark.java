@@ -0,0 +1,125 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scalar PinPolicy.evaluate versus the SWAR ASCII fast path over packed PIN bytes.
+ * Both variants score the same PINs; swar falls back to scalar for PINs it cannot decide.
+ * baseline scores them one String at a time through the public
+ * SecureBankPIN.minimumChangesForStrongPIN entry point the solution started from.
+ * batchAudit runs the parallel SecureBankPIN.auditPins over the same PINs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PinScanBenchmark {
+
+    private static final MethodHandle MINIMUM_CHANGES = Solvers.staticMethod("SecureBankPIN",
+            "minimumChangesForStrongPIN", int.class, String.class);
+    private static final MethodHandle EVALUATE = Solvers.instanceMethod("PinPolicy", "evaluate",
+            long.class, CharSequence.class, int.class, int.class);
+    private static final MethodHandle QUICK_EVALUATE = Solvers.instanceMethod("PinPolicy", "quickEvaluateAscii",
+            long.class, ByteBuffer.class, int.class, int.class);
+    private static final MethodHandle AUDIT = Solvers.staticMethod("SecureBankPIN", "auditPins",
+            Solvers.type("SecureBankPIN$PinAuditResult"), byte[].class, int[].class)
+            .asType(MethodType.methodType(Object.class, byte[].class, int[].class));
+    private static final MethodHandle LATIN1_VIEW = Solvers.constructor("SecureBankPIN$Latin1Chars", ByteBuffer.class);
+
+    /** Number of PINs scored per invocation. */
+    @Param({"1000", "100000"})
+    public int pins;
+
+    /** Percentage of PINs containing a run that has to be fixed (the scalar fallback case). */
+    @Param({"5", "50"})
+    public int repeatPercent;
+
+    private Object policy;
+    private ByteBuffer bytes;
+    private CharSequence chars;
+    private int[] offsets;
+    private String[] strings;
+
+    @Setup
+    public void setUp() throws Throwable {
+        policy = Solvers.staticField("PinPolicy", "DEFAULT");
+        Random random = new Random(17);
+        String alphabet = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789!@#$%";
+        StringBuilder packed = new StringBuilder();
+        offsets = new int[pins + 1];
+        for (int p = 0; p < pins; p++) {
+            int length = 4 + random.nextInt(21);
+            boolean repeat = random.nextInt(100) < repeatPercent;
+            for (int i = 0; i < length; i++) {
+                if (repeat && i >= 2 && i == length / 2) {
+                    packed.append(packed.charAt(packed.length() - 1));
+                    packed.append(packed.charAt(packed.length() - 1));
+                } else {
+                    packed.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            }
+            offsets[p + 1] = packed.length();
+        }
+        bytes = ByteBuffer.wrap(packed.toString().getBytes(StandardCharsets.ISO_8859_1));
+        chars = (CharSequence) (Object) LATIN1_VIEW.invokeExact(bytes);
+        strings = new String[pins];
+        for (int p = 0; p < pins; p++) {
+            strings[p] = packed.substring(offsets[p], offsets[p + 1]);
+        }
+    }
+
+    @Benchmark
+    public long baseline() throws Throwable {
+        long sum = 0;
+        for (String pin : strings) {
+            sum += (int) MINIMUM_CHANGES.invokeExact(pin);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long scalar() throws Throwable {
+        long sum = 0;
+        for (int p = 0; p < pins; p++) {
+            sum += (int) (long) EVALUATE.invokeExact(policy, chars, offsets[p], offsets[p + 1]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long swar() throws Throwable {
+        long sum = 0;
+        for (int p = 0; p < pins; p++) {
+            long result = (long) QUICK_EVALUATE.invokeExact(policy, bytes, offsets[p], offsets[p + 1]);
+            if (result < 0) {
+                result = (long) EVALUATE.invokeExact(policy, chars, offsets[p], offsets[p + 1]);
+            }
+            sum += (int) result;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Object batchAudit() throws Throwable {
+        return (Object) AUDIT.invokeExact(bytes.array(), offsets);
+    }
+}
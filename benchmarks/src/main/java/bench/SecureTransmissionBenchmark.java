@@ -0,0 +1,75 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SecureTransmission.canTransmit queries on a random sparse office network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecureTransmissionBenchmark {
+
+    private static final MethodHandle NETWORK = Solvers.constructor("SecureTransmission", int.class, int[][].class);
+    private static final MethodHandle CAN_TRANSMIT = Solvers.instanceMethod("SecureTransmission",
+            "canTransmit", boolean.class, int.class, int.class, int.class);
+
+    /** Number of offices; the network has three links per office. */
+    @Param({"1000", "100000"})
+    public int offices;
+
+    /** Queries per invocation. */
+    @Param({"100"})
+    public int queries;
+
+    private Object network;
+    private int[] senders;
+    private int[] receivers;
+    private int[] limits;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Random random = new Random(37);
+        int[][] links = new int[offices * 3][];
+        for (int i = 0; i < links.length; i++) {
+            links[i] = new int[]{random.nextInt(offices), random.nextInt(offices), 1 + random.nextInt(100)};
+        }
+        network = (Object) NETWORK.invokeExact(offices, links);
+        senders = new int[queries];
+        receivers = new int[queries];
+        limits = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            senders[q] = random.nextInt(offices);
+            receivers[q] = random.nextInt(offices);
+            limits[q] = 1 + random.nextInt(100);
+        }
+    }
+
+    @Benchmark
+    public int canTransmit() throws Throwable {
+        int reachable = 0;
+        for (int q = 0; q < queries; q++) {
+            if ((boolean) CAN_TRANSMIT.invokeExact(network, senders[q], receivers[q], limits[q])) {
+                reachable++;
+            }
+        }
+        return reachable;
+    }
+}
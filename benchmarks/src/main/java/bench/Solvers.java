@@ -0,0 +1,84 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Access to the solver classes from the benchmarks.
+ * The solvers live in the unnamed package, which named packages cannot import, and JMH
+ * refuses benchmarks in the unnamed package. Benchmarks therefore reach them through
+ * method handles resolved once into static finals, which the JIT inlines like direct calls.
+ */
+final class Solvers {
+
+    private Solvers() {
+    }
+
+    static Class<?> type(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Solver class not on the classpath: " + className, e);
+        }
+    }
+
+    /**
+     * Static method of a solver, package-private ones included.
+     */
+    static MethodHandle staticMethod(String className, String name, Class<?> returnType, Class<?>... params) {
+        Class<?> owner = type(className);
+        try {
+            return lookup(owner).findStatic(owner, name, MethodType.methodType(returnType, params));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing " + className + "." + name, e);
+        }
+    }
+
+    /**
+     * Instance method of a solver, adapted so the receiver is passed as Object.
+     */
+    static MethodHandle instanceMethod(String className, String name, Class<?> returnType, Class<?>... params) {
+        Class<?> owner = type(className);
+        try {
+            MethodHandle handle = lookup(owner).findVirtual(owner, name, MethodType.methodType(returnType, params));
+            return handle.asType(handle.type().changeParameterType(0, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing " + className + "." + name, e);
+        }
+    }
+
+    /**
+     * Constructor of a solver class, adapted to return Object.
+     */
+    static MethodHandle constructor(String className, Class<?>... params) {
+        Class<?> owner = type(className);
+        try {
+            MethodHandle handle = lookup(owner).findConstructor(owner, MethodType.methodType(void.class, params));
+            return handle.asType(handle.type().changeReturnType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing constructor of " + className, e);
+        }
+    }
+
+    /**
+     * Static field of a solver, package-private ones included.
+     */
+    static Object staticField(String className, String name) {
+        Class<?> owner = type(className);
+        try {
+            java.lang.reflect.Field field = owner.getDeclaredField(name);
+            return lookup(owner).unreflectGetter(field).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Missing " + className + "." + name, e);
+        }
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> owner) {
+        try {
+            return MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access " + owner.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * StartupCapitalOptimizer: primitive heaps against the PriorityQueue reference, and one
+ * CapitalScenarioEngine batch against running every scenario separately. The single runs start
+ * with enough capital to unlock about a quarter of the projects, so all k greedy rounds run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StartupCapitalBenchmark {
+
+    private static final MethodHandle PRIMITIVE = Solvers.staticMethod("StartupCapitalOptimizer",
+            "maximizeCapitalLong", long.class, int.class, long.class, int[].class, int[].class);
+    private static final MethodHandle QUEUES = Solvers.staticMethod("StartupCapitalOptimizer",
+            "maximizeCapitalWithQueues", long.class, int.class, long.class, int[].class, int[].class);
+    private static final MethodHandle ENGINE = Solvers.constructor("CapitalScenarioEngine", int[].class, int[].class);
+    private static final MethodHandle ENGINE_BATCH = Solvers.instanceMethod("CapitalScenarioEngine",
+            "maximizeCapital", long[].class, int[].class, long[].class);
+    private static final MethodHandle ENGINE_CURVE = Solvers.instanceMethod("CapitalScenarioEngine",
+            "capitalCurve", long[].class, int.class, long.class);
+
+    /** Number of projects. */
+    @Param({"1000", "100000"})
+    public int projects;
+
+    /** Number of (k, initialCapital) scenarios in a batch. */
+    @Param({"100"})
+    public int scenarios;
+
+    private int[] revenues;
+    private int[] investments;
+    private int k;
+    private long initialCapital;
+    private int[] ks;
+    private long[] starts;
+    private Object engine;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Random random = new Random(23);
+        revenues = new int[projects];
+        investments = new int[projects];
+        for (int i = 0; i < projects; i++) {
+            revenues[i] = random.nextInt(1000);
+            investments[i] = random.nextInt(projects * 100);
+        }
+        k = projects / 2;
+        initialCapital = projects * 25L; // investments are uniform below projects * 100
+        ks = new int[scenarios];
+        starts = new long[scenarios];
+        for (int q = 0; q < scenarios; q++) {
+            ks[q] = random.nextInt(projects);
+            starts[q] = random.nextInt(10) * 1000L; // a few distinct starts, as in what-if sweeps
+        }
+        engine = (Object) ENGINE.invokeExact(revenues, investments);
+
+        // The greedy loop must actually run, or only the sort is measured
+        long[] curve = (long[]) ENGINE_CURVE.invokeExact(engine, k, initialCapital);
+        long result = (long) PRIMITIVE.invokeExact(k, initialCapital, revenues, investments);
+        if (curve.length - 1 < k / 2 || result != curve[curve.length - 1]) {
+            throw new IllegalStateException("Only " + (curve.length - 1) + " of " + k
+                    + " rounds run from capital " + initialCapital);
+        }
+    }
+
+    @Benchmark
+    public long primitiveHeaps() throws Throwable {
+        return (long) PRIMITIVE.invokeExact(k, initialCapital, revenues, investments);
+    }
+
+    @Benchmark
+    public long priorityQueues() throws Throwable {
+        return (long) QUEUES.invokeExact(k, initialCapital, revenues, investments);
+    }
+
+    @Benchmark
+    public long[] scenariosOneByOne() throws Throwable {
+        long[] results = new long[scenarios];
+        for (int q = 0; q < scenarios; q++) {
+            results[q] = (long) PRIMITIVE.invokeExact(ks[q], starts[q], revenues, investments);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public long[] scenarioEngineBatch() throws Throwable {
+        return (long[]) ENGINE_BATCH.invokeExact(engine, ks, starts);
+    }
+}
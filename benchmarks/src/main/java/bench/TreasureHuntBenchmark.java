@@ -0,0 +1,82 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TreasureHuntGame: memoized minimax against the retrograde (topological) solver on random
+ * connected graphs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreasureHuntBenchmark {
+
+    private static final MethodHandle MINIMAX = Solvers.staticMethod("TreasureHuntGame",
+            "playGame", int.class, int[][].class);
+    private static final MethodHandle RETROGRADE = Solvers.staticMethod("TreasureHuntGame",
+            "playGameOptimal", int.class, int[][].class);
+
+    /** Number of nodes; node 0 is the treasure. */
+    @Param({"20", "50"})
+    public int nodes;
+
+    private int[][] graph;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(41);
+        List<List<Integer>> adjacency = new ArrayList<>();
+        for (int v = 0; v < nodes; v++) {
+            adjacency.add(new ArrayList<>());
+        }
+        // Random spanning tree plus as many extra edges, no self loops or duplicates
+        for (int v = 1; v < nodes; v++) {
+            connect(adjacency, v, random.nextInt(v));
+        }
+        for (int e = 0; e < nodes; e++) {
+            int a = random.nextInt(nodes);
+            int b = random.nextInt(nodes);
+            if (a != b && !adjacency.get(a).contains(b)) {
+                connect(adjacency, a, b);
+            }
+        }
+        graph = new int[nodes][];
+        for (int v = 0; v < nodes; v++) {
+            graph[v] = adjacency.get(v).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private static void connect(List<List<Integer>> adjacency, int a, int b) {
+        adjacency.get(a).add(b);
+        adjacency.get(b).add(a);
+    }
+
+    @Benchmark
+    public int minimax() throws Throwable {
+        return (int) MINIMAX.invokeExact(graph);
+    }
+
+    @Benchmark
+    public int retrograde() throws Throwable {
+        return (int) RETROGRADE.invokeExact(graph);
+    }
+}
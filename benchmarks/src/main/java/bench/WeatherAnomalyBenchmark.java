@@ -0,0 +1,93 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * WeatherAnomalyDetection.countAnomalyPeriods (merge-sort counting over prefix sums) against the
+ * original double loop and the fork-join split, over random daily temperature changes. indexed
+ * queries a prebuilt WeatherAnomalyIndex with the same band, and streaming feeds the series
+ * reading by reading to StreamingAnomalyDetector with a 100-reading window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherAnomalyBenchmark {
+
+    private static final MethodHandle COUNT = Solvers.staticMethod("WeatherAnomalyDetection",
+            "countAnomalyPeriods", long.class, int[].class, int.class, int.class);
+    private static final MethodHandle BRUTE_FORCE = Solvers.staticMethod("WeatherAnomalyDetection",
+            "countAnomalyPeriodsBruteForce", long.class, int[].class, int.class, int.class);
+    private static final MethodHandle PARALLEL = Solvers.staticMethod("WeatherAnomalyDetection",
+            "countAnomalyPeriodsParallel", long.class, int[].class, int.class, int.class);
+    private static final MethodHandle DETECTOR = Solvers.constructor("StreamingAnomalyDetector",
+            int.class, int.class, int.class);
+    private static final MethodHandle APPEND = Solvers.instanceMethod("StreamingAnomalyDetector",
+            "append", long.class, int.class);
+    private static final MethodHandle INDEX = Solvers.constructor("WeatherAnomalyIndex", int[].class);
+    private static final MethodHandle INDEX_COUNT = Solvers.instanceMethod("WeatherAnomalyIndex",
+            "countAnomalyPeriods", long.class, int.class, int.class);
+
+    /** Number of days. */
+    @Param({"1000", "10000"})
+    public int days;
+
+    private int[] changes;
+    private Object index;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Random random = new Random(29);
+        changes = new int[days];
+        for (int i = 0; i < days; i++) {
+            changes[i] = random.nextInt(21) - 10;
+        }
+        index = (Object) INDEX.invokeExact(changes);
+    }
+
+    @Benchmark
+    public long count() throws Throwable {
+        return (long) COUNT.invokeExact(changes, -5, 5);
+    }
+
+    @Benchmark
+    public long parallel() throws Throwable {
+        return (long) PARALLEL.invokeExact(changes, -5, 5);
+    }
+
+    @Benchmark
+    public long bruteForce() throws Throwable {
+        return (long) BRUTE_FORCE.invokeExact(changes, -5, 5);
+    }
+
+    @Benchmark
+    public long indexed() throws Throwable {
+        return (long) INDEX_COUNT.invokeExact(index, -5, 5);
+    }
+
+    @Benchmark
+    public long streaming() throws Throwable {
+        Object detector = (Object) DETECTOR.invokeExact(-5, 5, 100);
+        long total = 0;
+        for (int change : changes) {
+            total += (long) APPEND.invokeExact(detector, change);
+        }
+        return total;
+    }
+}